@@ -0,0 +1,83 @@
+package com.document.demo.config;
+
+import com.document.demo.models.Distribution;
+import com.document.demo.models.DocumentStatsDaily;
+import com.document.demo.models.Documents;
+import com.document.demo.models.Notification;
+import com.document.demo.models.Tracking;
+import com.document.demo.models.TrackingStatsHourly;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class MongoIndexConfig {
+    // Entities whose annotated indexes are created on startup (auto-index-creation is off by default)
+    private static final List<Class<?>> INDEXED_ENTITIES = List.of(
+            Documents.class,
+            DocumentStatsDaily.class,
+            Tracking.class,
+            TrackingStatsHourly.class,
+            Notification.class,
+            Distribution.class
+    );
+
+    // Indexes replaced by a wider one, dropped where they still exist so writes stop maintaining them
+    private static final Map<Class<?>, List<String>> OBSOLETE_INDEXES = Map.of(
+            Tracking.class, List.of("entity_timestamp", "actor_timestamp", "timestamp")
+    );
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mongoMappingContext;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoMappingContext);
+
+        for (Class<?> entity : INDEXED_ENTITIES) {
+            IndexOperations indexOps = mongoTemplate.indexOps(entity);
+            resolver.resolveIndexFor(entity).forEach(index -> {
+                try {
+                    indexOps.ensureIndex(index);
+                } catch (Exception e) {
+                    log.warn("Could not create index {} for {}: {}",
+                            index.getIndexOptions(), entity.getSimpleName(), e.getMessage());
+                }
+            });
+        }
+        log.info("MongoDB indexes ensured for {} entities", INDEXED_ENTITIES.size());
+
+        dropObsoleteIndexes();
+    }
+
+    private void dropObsoleteIndexes() {
+        OBSOLETE_INDEXES.forEach((entity, names) -> {
+            IndexOperations indexOps = mongoTemplate.indexOps(entity);
+            List<String> existing = indexOps.getIndexInfo().stream().map(IndexInfo::getName).toList();
+            for (String name : names) {
+                if (!existing.contains(name)) {
+                    continue;
+                }
+                try {
+                    indexOps.dropIndex(name);
+                    log.info("Dropped obsolete index {} of {}", name, entity.getSimpleName());
+                } catch (Exception e) {
+                    log.warn("Could not drop index {} of {}: {}", name, entity.getSimpleName(), e.getMessage());
+                }
+            }
+        });
+    }
+}
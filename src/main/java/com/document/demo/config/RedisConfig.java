@@ -0,0 +1,27 @@
+package com.document.demo.config;
+
+import com.document.demo.security.TokenDenylistService;
+import com.document.demo.security.TokenVersionService;
+import com.document.demo.security.UserPrincipalCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+public class RedisConfig {
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            TokenVersionService tokenVersionService,
+            TokenDenylistService tokenDenylistService,
+            UserPrincipalCache principalCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(tokenVersionService, new ChannelTopic(TokenVersionService.CHANNEL));
+        container.addMessageListener(tokenDenylistService, new ChannelTopic(TokenDenylistService.CHANNEL));
+        container.addMessageListener(principalCache, new ChannelTopic(UserPrincipalCache.CHANNEL));
+        return container;
+    }
+}
@@ -7,6 +7,11 @@ import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.net.URI;
 
 @Configuration
 public class S3Config {
@@ -20,13 +25,45 @@ public class S3Config {
     @Value("${aws.s3.region}")
     private String region;
 
+    // Empty for AWS, set to point at an S3 compatible store such as MinIO
+    @Value("${aws.s3.endpoint:}")
+    private String endpoint;
+
+    @Value("${aws.s3.path-style-access:false}")
+    private boolean pathStyleAccess;
+
     @Bean
     public S3Client s3Client() {
-        AwsBasicCredentials credentials = AwsBasicCredentials.create(accessKeyId, secretAccessKey);
-        
-        return S3Client.builder()
+        S3ClientBuilder builder = S3Client.builder()
             .region(Region.of(region))
-            .credentialsProvider(StaticCredentialsProvider.create(credentials))
+            .credentialsProvider(credentialsProvider())
+            .serviceConfiguration(serviceConfiguration());
+        if (!endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return builder.build();
+    }
+
+    @Bean
+    public S3Presigner s3Presigner() {
+        S3Presigner.Builder builder = S3Presigner.builder()
+            .region(Region.of(region))
+            .credentialsProvider(credentialsProvider())
+            .serviceConfiguration(serviceConfiguration());
+        if (!endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return builder.build();
+    }
+
+    private StaticCredentialsProvider credentialsProvider() {
+        AwsBasicCredentials credentials = AwsBasicCredentials.create(accessKeyId, secretAccessKey);
+        return StaticCredentialsProvider.create(credentials);
+    }
+
+    private S3Configuration serviceConfiguration() {
+        return S3Configuration.builder()
+            .pathStyleAccessEnabled(pathStyleAccess)
             .build();
     }
-} 
\ No newline at end of file
+}
@@ -3,6 +3,7 @@ package com.document.demo.config;
 import com.document.demo.security.JwtAuthenticationEntryPoint;
 import com.document.demo.security.JwtAuthenticationFilter;
 import com.document.demo.security.JwtTokenProvider;
+import com.document.demo.security.UserPrincipalCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -34,10 +35,11 @@ public class SecurityConfig {
     private final UserDetailsService userService;
     private final JwtAuthenticationEntryPoint unauthorizedHandler;
     private final JwtTokenProvider tokenProvider;
+    private final UserPrincipalCache principalCache;
 
     @Bean
     public JwtAuthenticationFilter authenticationJwtTokenFilter() {
-        return new JwtAuthenticationFilter(tokenProvider, userService);
+        return new JwtAuthenticationFilter(tokenProvider, userService, principalCache);
     }
 
     @Bean
@@ -0,0 +1,47 @@
+package com.document.demo.config;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Executor for async MVC work: streamed downloads and exports, and uploads returned as a Callable.
+// Each of them holds a thread for the whole transfer, so they get their own bounded pool. It is not
+// a bean, an Executor bean would make Spring Boot drop its applicationTaskExecutor.
+@Configuration
+public class WebAsyncConfig implements WebMvcConfigurer {
+
+    @Value("${mvc.async.core-pool-size:16}")
+    private int corePoolSize;
+
+    @Value("${mvc.async.max-pool-size:64}")
+    private int maxPoolSize;
+
+    @Value("${mvc.async.queue-capacity:100}")
+    private int queueCapacity;
+
+    private ThreadPoolTaskExecutor executor;
+
+    // Runs after Spring Boot's configurer, so this executor replaces the application task executor
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("mvc-async-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        configurer.setTaskExecutor(executor);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
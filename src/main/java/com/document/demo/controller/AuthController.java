@@ -12,16 +12,19 @@ import com.document.demo.models.enums.TrackingActionType;
 import com.document.demo.models.enums.TrackingEntityType;
 import com.document.demo.models.enums.UserStatus;
 import com.document.demo.security.JwtTokenProvider;
+import com.document.demo.security.TokenVersionService;
 import com.document.demo.service.EmailService;
 import com.document.demo.service.OtpService;
 import com.document.demo.service.TrackingService;
 import com.document.demo.service.UserService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -42,6 +45,7 @@ public class AuthController {
     private final EmailService emailService;
     private final OtpService otpService;
     private final TrackingService trackingService;
+    private final TokenVersionService tokenVersionService;
 
     @PostMapping("/login")
     public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request) {
@@ -114,13 +118,14 @@ public class AuthController {
     public ResponseEntity<?> refreshToken(@RequestBody RefreshTokenRequest request) {
         try {
             String token = request.getRefreshToken();
-            if (!tokenProvider.validateToken(token)) {
+            Claims claims = tokenProvider.getValidClaims(token);
+            if (claims == null) {
                 return ResponseEntity
                     .status(HttpStatus.UNAUTHORIZED)
                     .body(new ErrorResponse("Invalid refresh token"));
             }
 
-            String username = tokenProvider.getUsernameFromToken(token);
+            String username = claims.getSubject();
             User user = userService.findByUsername(username);
             
             Authentication authentication = new UsernamePasswordAuthenticationToken(
@@ -294,7 +299,7 @@ public class AuthController {
                     .body(new ErrorResponse("Token is already invalidated"));
             }
 
-            if (refreshToken != null && !tokenProvider.validateToken(refreshToken, true)) {
+            if (refreshToken != null && !tokenProvider.validateToken(refreshToken)) {
                 return ResponseEntity
                     .status(HttpStatus.BAD_REQUEST)
                     .body(new ErrorResponse("Refresh token is already invalidated"));
@@ -329,6 +334,40 @@ public class AuthController {
         }
     }
 
+    // Ends every session of the current user by bumping the token version, one Redis write
+    @PostMapping("/logout-all")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> logoutAll() {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication == null || !(authentication.getPrincipal() instanceof User user)) {
+                return ResponseEntity
+                    .status(HttpStatus.UNAUTHORIZED)
+                    .body(new ErrorResponse("Not authenticated"));
+            }
+
+            tokenVersionService.revokeAll(user.getUserId());
+
+            trackingService.track(
+                TrackingRequest.builder()
+                    .actor(user)
+                    .entityType(TrackingEntityType.USER)
+                    .entityId(user.getUserId())
+                    .action(TrackingActionType.LOGOUT)
+                    .build()
+            );
+
+            SecurityContextHolder.clearContext();
+
+            return ResponseEntity.ok(new SuccessResponse("Logged out of all sessions"));
+        } catch (Exception e) {
+            log.error("Error during logout of all sessions: ", e);
+            return ResponseEntity
+                .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorResponse("Failed to logout: " + e.getMessage()));
+        }
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -2,14 +2,21 @@ package com.document.demo.controller;
 
 import com.document.demo.dto.request.*;
 import com.document.demo.dto.response.*;
+import com.document.demo.exception.BadRequestException;
+import com.document.demo.exception.FileNotFoundException;
 import com.document.demo.exception.ResourceNotFoundException;
 import com.document.demo.models.Distribution;
 import com.document.demo.models.Documents;
+import com.document.demo.models.User;
 import com.document.demo.models.enums.DocumentStatus;
 import com.document.demo.models.enums.DocumentType;
+import com.document.demo.service.AttachmentCacheService;
+import com.document.demo.service.AttachmentService;
 import com.document.demo.service.DistributionService;
 import com.document.demo.service.DocumentService;
+import com.document.demo.service.S3Service;
 import com.document.demo.service.UserService;
+import com.document.demo.utils.SearchHighlightUtils;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,6 +24,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -26,6 +34,7 @@ import org.springframework.web.bind.annotation.*;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.EnumMap;
 import java.util.stream.Collectors;
 
@@ -37,13 +46,20 @@ public class DocumentController {
     private final DocumentService documentService;
     private final DistributionService distributionService;
     private final UserService userService;
+    private final AttachmentService attachmentService;
+    private final S3Service s3Service;
+    private final AttachmentCacheService attachmentCacheService;
 
+    // The attachment goes to S3 on the MVC async executor, the Tomcat thread is released meanwhile
     @PostMapping("/create")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<DocumentResponse> createDocument(
-            @Valid @ModelAttribute DocumentRequest request) throws IOException {
+    public Callable<ResponseEntity<DocumentResponse>> createDocument(
+            @Valid @ModelAttribute DocumentRequest request) {
         log.info("Create Document: {}", request);
+        return () -> createDocumentResponse(request);
+    }
 
+    private ResponseEntity<DocumentResponse> createDocumentResponse(DocumentRequest request) throws IOException {
         Documents document = documentService.createDocument(request);
 
         DocumentResponse response = DocumentResponse.builder()
@@ -63,7 +79,7 @@ public class DocumentController {
                 .logNote(document.getLogNote())
                 .status(document.getStatus())
                 .createdAt(document.getCreatedAt())
-                .creator(document.getCreateBy())
+                .creator(documentService.resolveCreator(document))
                 .secretLevel(document.getSecretLevel())
                 .build();
 
@@ -71,10 +87,14 @@ public class DocumentController {
     }
     @PostMapping("/update/{id}")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<?> updateDocument(
+    public Callable<ResponseEntity<?>> updateDocument(
             @Valid @ModelAttribute UpdateDocumentRequest request,
             @PathVariable String id) {
         log.info("Update Document with id {}: {}", id, request);
+        return () -> updateDocumentResponse(id, request);
+    }
+
+    private ResponseEntity<?> updateDocumentResponse(String id, UpdateDocumentRequest request) {
         try {
             Documents document = documentService.updateDocument(id, request);
             DocumentResponse response = DocumentResponse.builder()
@@ -94,7 +114,7 @@ public class DocumentController {
                     .logNote(document.getLogNote())
                     .status(document.getStatus())
                     .createdAt(document.getCreatedAt())
-                    .creator(document.getCreateBy())
+                    .creator(documentService.resolveCreator(document))
                     .secretLevel(document.getSecretLevel())
                     .build();
 
@@ -126,10 +146,7 @@ public class DocumentController {
                         .note(request.getNote())
                         .documents(documentService.findById(request.getDocumentId()))
                         .sender(userService.getUserById(request.getSenderId()))
-                        .receivers(
-                                request.getReceiverIds().stream()
-                                .map(userService::getUserById)
-                                .toList())
+                        .receivers(userService.getUsersByIds(request.getReceiverIds()))
                         .build()
         );
 
@@ -148,9 +165,17 @@ public class DocumentController {
     @GetMapping("/recent")
     public ResponseEntity<?> getRecentDocuments(
         @RequestParam(required = false) String type,
-        @RequestParam(defaultValue = "7") int limit
+        @RequestParam(defaultValue = "7") int limit,
+        @RequestParam(defaultValue = "full") String view
     ) {
         try {
+            if (isSummaryView(view)) {
+                DocumentType docType = type != null ? DocumentType.valueOf(type.toUpperCase()) : null;
+                return ResponseEntity.ok(documentService.findRecentSummaries(docType, limit).stream()
+                    .map(DocumentSummaryResponse::from)
+                    .toList());
+            }
+
             List<Documents> documents;
             if (type != null) {
                 DocumentType docType = DocumentType.valueOf(type.toUpperCase());
@@ -159,6 +184,7 @@ public class DocumentController {
                 documents = documentService.findRecentDocuments(limit);
             }
 
+            Map<String, User> creators = documentService.resolveCreators(documents);
             List<DocumentResponse> responses = documents.stream()
                 .map(doc -> DocumentResponse.builder()
                     .documentId(doc.getDocumentId())
@@ -177,7 +203,7 @@ public class DocumentController {
                     .keywords(doc.getKeywords())
                     .logNote(doc.getLogNote())
                     .createdAt(doc.getCreatedAt())
-                    .creator(doc.getCreateBy())
+                    .creator(creators.get(doc.getDocumentId()))
                     .secretLevel(doc.getSecretLevel())
                     .build()
                 ).toList();
@@ -198,12 +224,28 @@ public class DocumentController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String direction
+            @RequestParam(defaultValue = "desc") String direction,
+            @RequestParam(defaultValue = "full") String view
     ) {
         try {
             Sort.Direction dir = Sort.Direction.fromString(direction);
             Pageable pageable = PageRequest.of(page, size, Sort.by(dir, sortBy));
 
+            Map<DocumentStatus, Long> statusCounts = type != null ? 
+                documentService.getStatusCountsByType(type) : 
+                new EnumMap<>(DocumentStatus.class);
+
+            if (isSummaryView(view)) {
+                Page<DocumentSummaryResponse> summaries = documentService
+                    .findSummaries(type, status, pageable)
+                    .map(DocumentSummaryResponse::from);
+
+                return ResponseEntity.ok(new SuccessResponse(
+                    "Documents retrieved successfully", 
+                    PageWithStatusCountResponse.from(summaries, statusCounts)
+                ));
+            }
+
             Page<Documents> documents;
             if (type != null && status != null) {
                 documents = documentService.findByTypeAndStatus(type, status, pageable);
@@ -215,6 +257,7 @@ public class DocumentController {
                 documents = documentService.findAll(pageable);
             }
 
+            Map<String, User> creators = documentService.resolveCreators(documents.getContent());
             Page<DocumentResponse> responses = documents.map(doc -> DocumentResponse.builder()
                     .documentId(doc.getDocumentId())
                     .number(doc.getNumber())
@@ -232,15 +275,11 @@ public class DocumentController {
                     .keywords(doc.getKeywords())
                     .logNote(doc.getLogNote())
                     .createdAt(doc.getCreatedAt())
-                    .creator(doc.getCreateBy())
+                    .creator(creators.get(doc.getDocumentId()))
                     .secretLevel(doc.getSecretLevel())
                     .build()
             );
 
-            Map<DocumentStatus, Long> statusCounts = type != null ? 
-                documentService.getStatusCountsByType(type) : 
-                new EnumMap<>(DocumentStatus.class);
-
             return ResponseEntity.ok(new SuccessResponse(
                 "Documents retrieved successfully", 
                 PageWithStatusCountResponse.from(responses, statusCounts)
@@ -262,6 +301,17 @@ public class DocumentController {
                                          Sort.by(direction, request.getSortBy()));
 
         try {
+            if (isSummaryView(request.getView())) {
+                Page<DocumentSummaryResponse> summaries = documentService.searchDocumentSummaries(
+                    request.getKeyword(),
+                    request.getType(),
+                    request.getStartDate(),
+                    request.getEndDate(),
+                    pageable
+                ).map(DocumentSummaryResponse::from);
+                return ResponseEntity.ok(PageResponse.from(summaries));
+            }
+
             Page<Documents> results = documentService.searchDocuments(
                 request.getKeyword(),
                 request.getType(),
@@ -277,6 +327,44 @@ public class DocumentController {
         }
     }
 
+    @GetMapping("/full-text-search")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> fullTextSearch(
+            @RequestParam String keyword,
+            @RequestParam(required = false) DocumentType type,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        log.info("Received full-text search request with keyword: {}", keyword);
+        try {
+            Page<Documents> results = documentService.fullTextSearch(keyword, type, PageRequest.of(page, size));
+
+            Page<DocumentSearchHitResponse> hits = results.map(doc -> {
+                String highlight = SearchHighlightUtils.highlight(doc.getContent(), keyword);
+                return DocumentSearchHitResponse.builder()
+                        .documentId(doc.getDocumentId())
+                        .number(doc.getNumber())
+                        .title(doc.getTitle())
+                        .agencyUnit(doc.getAgencyUnit())
+                        .type(doc.getType())
+                        .status(doc.getStatus())
+                        .createdAt(doc.getCreatedAt())
+                        .score(doc.getScore())
+                        .highlight(highlight != null ? highlight : SearchHighlightUtils.highlight(doc.getTitle(), keyword))
+                        .build();
+            });
+
+            return ResponseEntity.ok(new SuccessResponse(
+                "Documents searched successfully",
+                PageResponse.from(hits)
+            ));
+        } catch (Exception e) {
+            log.error("Error running full-text search: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorResponse("Error searching documents: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> getDocumentById(@PathVariable String id) {
@@ -300,7 +388,7 @@ public class DocumentController {
                     .logNote(document.getLogNote())
                     .status(document.getStatus())
                     .createdAt(document.getCreatedAt())
-                    .creator(document.getCreateBy())
+                    .creator(documentService.resolveCreator(document))
                     .secretLevel(document.getSecretLevel())
                     .build();
 
@@ -319,6 +407,127 @@ public class DocumentController {
         }
     }
 
+    @GetMapping("/{id}/attachment")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> downloadAttachment(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Documents document;
+        try {
+            document = documentService.findById(id);
+        } catch (RuntimeException e) {
+            return ResponseEntity
+                .status(HttpStatus.NOT_FOUND)
+                .body(new ErrorResponse("Document not found with id: " + id));
+        }
+        if (document.getAttachment() == null) {
+            return ResponseEntity
+                .status(HttpStatus.NOT_FOUND)
+                .body(new ErrorResponse("Document has no attachment"));
+        }
+
+        try {
+            return attachmentService.download(document.getAttachment(),
+                attachmentName(document.getAttachment()), range, ifRange, ifNoneMatch);
+        } catch (FileNotFoundException e) {
+            return ResponseEntity
+                .status(HttpStatus.NOT_FOUND)
+                .body(new ErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity
+                .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorResponse("Error downloading attachment: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{id}/attachment/upload-url")
+    @PreAuthorize("isAuthenticated() and (hasRole('ADMIN') or @documentPermissionEvaluator.isDocumentCreator(#id))")
+    public ResponseEntity<?> createAttachmentUploadUrl(
+            @PathVariable String id,
+            @RequestParam String fileName,
+            @RequestParam(required = false) String contentType) {
+        try {
+            Documents document = documentService.findById(id);
+            PresignedUrlResponse response = s3Service.presignUpload(
+                document.getDocumentId(), fileName, contentType);
+            return ResponseEntity.ok(new SuccessResponse("Upload URL created", response));
+        } catch (BadRequestException e) {
+            return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponse(e.getMessage()));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity
+                .status(HttpStatus.NOT_FOUND)
+                .body(new ErrorResponse("Document not found with id: " + id));
+        } catch (Exception e) {
+            return ResponseEntity
+                .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorResponse("Error creating upload URL: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{id}/attachment/confirm")
+    @PreAuthorize("isAuthenticated() and (hasRole('ADMIN') or @documentPermissionEvaluator.isDocumentCreator(#id))")
+    public ResponseEntity<?> confirmAttachmentUpload(
+            @PathVariable String id,
+            @Valid @RequestBody ConfirmUploadRequest request) {
+        try {
+            Documents document = documentService.confirmAttachmentUpload(id, request.getKey());
+            return ResponseEntity.ok(new SuccessResponse(
+                "Attachment confirmed",
+                Map.of("attachment", document.getAttachment())
+            ));
+        } catch (BadRequestException e) {
+            return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponse(e.getMessage()));
+        } catch (ResourceNotFoundException | FileNotFoundException e) {
+            return ResponseEntity
+                .status(HttpStatus.NOT_FOUND)
+                .body(new ErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity
+                .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorResponse("Error confirming attachment: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{id}/attachment/download-url")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> createAttachmentDownloadUrl(@PathVariable String id) {
+        try {
+            Documents document = documentService.findById(id);
+            if (document.getAttachment() == null) {
+                return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorResponse("Document has no attachment"));
+            }
+            PresignedUrlResponse response = s3Service.presignDownload(
+                document.getAttachment(), attachmentName(document.getAttachment()));
+            return ResponseEntity.ok(new SuccessResponse("Download URL created", response));
+        } catch (BadRequestException e) {
+            return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponse(e.getMessage()));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity
+                .status(HttpStatus.NOT_FOUND)
+                .body(new ErrorResponse("Document not found with id: " + id));
+        } catch (Exception e) {
+            return ResponseEntity
+                .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorResponse("Error creating download URL: " + e.getMessage()));
+        }
+    }
+
+    // Stored names are <uuid>_<original name>
+    private static String attachmentName(String attachment) {
+        String name = attachment.substring(attachment.lastIndexOf('/') + 1);
+        return name.length() > 37 && name.charAt(36) == '_' ? name.substring(37) : name;
+    }
+
     @GetMapping("/agency-units/suggest")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> suggestAgencyUnits(
@@ -347,6 +556,49 @@ public class DocumentController {
         }
     }
 
+    @PostMapping("/creator-references/migrate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> migrateCreatorReferences() {
+        try {
+            long updated = documentService.migrateCreatorReferences();
+            return ResponseEntity.ok(new SuccessResponse(
+                "Creator references migrated successfully",
+                updated
+            ));
+        } catch (Exception e) {
+            log.error("Error migrating creator references: ", e);
+            return ResponseEntity
+                .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorResponse("Error migrating creator references: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/attachment-cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getAttachmentCacheStats() {
+        return ResponseEntity.ok(new SuccessResponse(
+            "Attachment cache statistics",
+            attachmentCacheService.getStats()
+        ));
+    }
+
+    @PostMapping("/search-fields/backfill")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> backfillSearchFields() {
+        try {
+            long updated = documentService.backfillSearchFields();
+            return ResponseEntity.ok(new SuccessResponse(
+                "Search fields backfilled successfully",
+                updated
+            ));
+        } catch (Exception e) {
+            log.error("Error backfilling search fields: ", e);
+            return ResponseEntity
+                .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorResponse("Error backfilling search fields: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/filter")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> filterDocuments(FilterRequest request) {
@@ -422,4 +674,8 @@ public class DocumentController {
                 .body(new ErrorResponse("Error deleting document: " + e.getMessage()));
         }
     }
-} 
\ No newline at end of file
+
+    private static boolean isSummaryView(String view) {
+        return "summary".equalsIgnoreCase(view);
+    }
+}
@@ -1,13 +1,18 @@
 package com.document.demo.controller;
 
 import com.document.demo.dto.response.*;
+import com.document.demo.exception.BadRequestException;
 import com.document.demo.models.enums.DocumentStatus;
 import com.document.demo.models.enums.DocumentType;
+import com.document.demo.models.projection.DocumentReportSnapshot;
+import com.document.demo.service.DocumentStatsService;
 import com.document.demo.service.ReportService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -20,6 +25,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ReportController {
    private final ReportService reportService;
+   private final DocumentStatsService documentStatsService;
    @GetMapping("/get-total-document")
     public ResponseEntity<?> getTotalAllDocument(){
         try {
@@ -164,7 +170,6 @@ public class ReportController {
     @GetMapping("/get-week-statistic-document")
     public ResponseEntity<?> getWeeksStatisticByDocument(@RequestParam int year, @RequestParam int month, @RequestParam int week){
         try {
-            double per = reportService.getOutGoingDocumentGrowthReport();
             long ic = reportService.countIncomingDocumentsByWeek(year, month, week);
             long o = reportService.countOutgoingDocumentsByWeek(year, month, week);
             DocumentStatisticByWeekResponse a = new DocumentStatisticByWeekResponse();
@@ -199,5 +204,60 @@ public class ReportController {
                     .body(new ErrorResponse("Error get report detail: " + e.getMessage()));
         }
     }
+    @GetMapping("/get-report-snapshot")
+    public ResponseEntity<?> getReportSnapshot(){
+        try {
+            DocumentReportSnapshot snapshot = reportService.getReportSnapshot();
+            return ResponseEntity.ok(
+                    new SuccessResponse(
+                            "Get report snapshot success",
+                            snapshot
+                    )
+            );
+        } catch (Exception e){
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("Error get report snapshot: " + e.getMessage()));
+        }
+    }
+    @GetMapping("/get-range-statistic-document")
+    public ResponseEntity<?> getRangeStatisticByDocument(@RequestParam int year,
+                                                         @RequestParam(defaultValue = "month") String granularity){
+        try {
+            List<DocumentStatisticRangeResponse> list = documentStatsService.getStatistics(year, granularity);
+            return ResponseEntity.ok(
+                    new SuccessResponse(
+                            "Get statistic by document success",
+                            list
+                    )
+            );
+        } catch (BadRequestException e){
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage()));
+        } catch (Exception e){
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("Error get statistic by document: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/rebuild-statistic-document")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> rebuildStatisticByDocument(){
+        try {
+            int days = documentStatsService.rebuild();
+            return ResponseEntity.ok(
+                    new SuccessResponse(
+                            "Rebuild statistic by document success",
+                            days
+                    )
+            );
+        } catch (Exception e){
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("Error rebuild statistic by document: " + e.getMessage()));
+        }
+    }
 
 }
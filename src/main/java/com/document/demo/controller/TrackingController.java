@@ -1,17 +1,27 @@
 package com.document.demo.controller;
 
+import com.document.demo.dto.request.TrackingHistoryFilter;
+import com.document.demo.dto.response.CursorPageResponse;
+import com.document.demo.dto.response.TrackingStatisticsResponse;
 import com.document.demo.models.Tracking;
 import com.document.demo.models.User;
 import com.document.demo.models.enums.TrackingActionType;
 import com.document.demo.models.enums.TrackingEntityType;
+import com.document.demo.service.TrackingRetentionService;
 import com.document.demo.service.TrackingService;
+import com.document.demo.service.TrackingStatsService;
 import com.document.demo.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -22,25 +32,80 @@ import java.util.Map;
 @PreAuthorize("hasRole('ADMIN')")
 public class TrackingController {
     private final TrackingService trackingService;
+    private final TrackingStatsService trackingStatsService;
+    private final TrackingRetentionService trackingRetentionService;
     private final UserService userService;
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     @GetMapping("/entity/{type}/{id}")
-    public ResponseEntity<List<Tracking>> getEntityHistory(
+    public ResponseEntity<CursorPageResponse<Tracking>> getEntityHistory(
+            @PathVariable TrackingEntityType type,
+            @PathVariable String id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(trackingService.getEntityHistory(type, id, cursor, size));
+    }
+
+    @GetMapping("/entity/{type}/{id}/export")
+    public ResponseEntity<StreamingResponseBody> exportEntityHistory(
             @PathVariable TrackingEntityType type,
             @PathVariable String id) {
-        return ResponseEntity.ok(trackingService.getEntityHistory(type, id));
+        return export(TrackingHistoryFilter.builder()
+                .entityType(type)
+                .entityId(id)
+                .build());
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Tracking>> getUserActivity(
+    public ResponseEntity<CursorPageResponse<Tracking>> getUserActivity(
+            @PathVariable String userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        User user = userService.getUserById(userId);
+        return ResponseEntity.ok(trackingService.getUserActivity(user.getUserId(), start, end, cursor, size));
+    }
+
+    @GetMapping("/user/{userId}/export")
+    public ResponseEntity<StreamingResponseBody> exportUserActivity(
             @PathVariable String userId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
         User user = userService.getUserById(userId);
-        if (start != null && end != null) {
-            return ResponseEntity.ok(trackingService.getActivityBetween(start, end));
-        }
-        return ResponseEntity.ok(trackingService.getUserActivity(user));
+        return export(TrackingHistoryFilter.builder()
+                .actorId(user.getUserId())
+                .start(start)
+                .end(end)
+                .build());
+    }
+
+    @GetMapping("/activity")
+    public ResponseEntity<CursorPageResponse<Tracking>> getActivityBetween(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(trackingService.getActivityBetween(start, end, cursor, size));
+    }
+
+    @GetMapping("/activity/export")
+    public ResponseEntity<StreamingResponseBody> exportActivityBetween(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        return export(TrackingHistoryFilter.builder()
+                .start(start)
+                .end(end)
+                .build());
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(TrackingHistoryFilter filter) {
+        StreamingResponseBody body = out -> trackingService.exportHistory(filter, out);
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tracking.ndjson\"")
+                .body(body);
     }
 
     @GetMapping("/recent")
@@ -49,20 +114,42 @@ public class TrackingController {
         return ResponseEntity.ok(trackingService.getRecentActivity(limit));
     }
 
+    @GetMapping("/statistics/summary")
+    public ResponseEntity<TrackingStatisticsResponse> getStatisticsSummary(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(required = false) TrackingEntityType entityType) {
+        return ResponseEntity.ok(trackingStatsService.getSummary(start, end, entityType));
+    }
+
+    @PostMapping("/statistics/rebuild")
+    public ResponseEntity<Integer> rebuildStatistics() {
+        return ResponseEntity.ok(trackingStatsService.rebuild());
+    }
+
     @GetMapping("/statistics/{entityType}")
     public ResponseEntity<Map<TrackingActionType, Long>> getActionStatistics(
             @PathVariable TrackingEntityType entityType) {
         return ResponseEntity.ok(trackingService.getActionStatistics(entityType));
     }
 
-    @DeleteMapping("/cleanup")
-    public ResponseEntity<Void> cleanupOldRecords(
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before) {
-        if (before != null) {
-            trackingService.deleteOldRecords(before);
-        } else {
-            trackingService.cleanupOldRecords();
+    @PostMapping("/compact")
+    public ResponseEntity<Long> compactLegacyRecords() {
+        return ResponseEntity.ok(trackingService.compactLegacyRecords());
+    }
+
+    @PostMapping("/retention/apply")
+    public ResponseEntity<Long> applyRetention(
+            @RequestParam(defaultValue = "false") boolean onlyMissing) {
+        return ResponseEntity.ok(trackingRetentionService.applyRetention(onlyMissing));
+    }
+
+    @PostMapping("/archive")
+    public ResponseEntity<String> archiveExpiring() throws IOException {
+        Path archiveFile = trackingRetentionService.archiveExpiring();
+        if (archiveFile == null) {
+            return ResponseEntity.noContent().build();
         }
-        return ResponseEntity.ok().build();
+        return ResponseEntity.ok(archiveFile.getFileName().toString());
     }
-} 
\ No newline at end of file
+}
@@ -7,6 +7,7 @@ import com.document.demo.exception.ResourceNotFoundException;
 import com.document.demo.models.User;
 import com.document.demo.models.enums.UserRole;
 import com.document.demo.models.enums.UserStatus;
+import com.document.demo.service.AttachmentService;
 import com.document.demo.service.S3Service;
 import com.document.demo.service.UserService;
 import jakarta.validation.Valid;
@@ -27,6 +28,7 @@ public class UserController {
 
     private final UserService userService;
     private final S3Service s3Service;
+    private final AttachmentService attachmentService;
 
     @Value("${aws.s3.bucket}")
     private String bucketName;
@@ -143,16 +145,16 @@ public class UserController {
     }
 
     @GetMapping("/test/{fileName}")
-    public ResponseEntity<?> testDownload(@PathVariable String fileName) {
+    public ResponseEntity<?> testDownload(
+            @PathVariable String fileName,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             String fileUrl = String.format("https://%s.s3.%s.amazonaws.com/%s", 
                 bucketName, region, fileName);
             
-            byte[] data = s3Service.downloadFile(fileUrl);
-            
-            return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
-                .body(data);
+            return attachmentService.download(fileUrl, fileName, range, ifRange, ifNoneMatch);
                 
         } catch (Exception e) {
             return ResponseEntity
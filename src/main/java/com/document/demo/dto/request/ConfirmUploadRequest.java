@@ -0,0 +1,14 @@
+package com.document.demo.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConfirmUploadRequest {
+    @NotBlank(message = "Key is required")
+    private String key;
+}
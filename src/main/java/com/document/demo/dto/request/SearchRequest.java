@@ -19,4 +19,5 @@ public class SearchRequest {
     private String sortBy = "createdAt";
     private String sortDirection = "DESC";
     private DocumentType type = DocumentType.INCOMING;
+    private String view = "full";
 } 
\ No newline at end of file
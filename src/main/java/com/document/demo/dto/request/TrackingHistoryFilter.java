@@ -0,0 +1,22 @@
+package com.document.demo.dto.request;
+
+import com.document.demo.models.enums.TrackingEntityType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Every field is optional, only the ones that are set narrow the history
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TrackingHistoryFilter {
+    private TrackingEntityType entityType;
+    private String entityId;
+    private String actorId;
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
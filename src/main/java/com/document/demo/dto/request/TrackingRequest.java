@@ -4,6 +4,7 @@ import com.document.demo.models.User;
 import com.document.demo.models.enums.TrackingActionType;
 import com.document.demo.models.enums.TrackingEntityType;
 import com.document.demo.models.tracking.ChangeLog;
+import com.document.demo.models.tracking.DeviceInfo;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -34,4 +35,7 @@ public class TrackingRequest {
     private Map<String, ChangeLog> changes;
     
     private Map<String, Object> metadata;
+
+    // Defaults to the device info captured for the current request
+    private DeviceInfo deviceInfo;
 } 
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.document.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AttachmentCacheStats {
+    private boolean enabled;
+    private long hits;
+    private long misses;
+    private long evictions;
+    // Downloads served straight from S3 because the file is larger than the cacheable size
+    private long bypassed;
+    private int entries;
+    private long sizeBytes;
+    private long maxSizeBytes;
+}
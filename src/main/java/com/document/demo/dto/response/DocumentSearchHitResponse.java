@@ -0,0 +1,26 @@
+package com.document.demo.dto.response;
+
+import com.document.demo.models.enums.DocumentStatus;
+import com.document.demo.models.enums.DocumentType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DocumentSearchHitResponse {
+    private String documentId;
+    private String number;
+    private String title;
+    private String agencyUnit;
+    private DocumentType type;
+    private DocumentStatus status;
+    private LocalDateTime createdAt;
+    private Float score;
+    private String highlight;
+}
@@ -0,0 +1,19 @@
+package com.document.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DocumentStatisticRangeResponse {
+    // 2025-01-05 for days, 2025-W01 for weeks, 2025-01 for months
+    private String period;
+    private long countIncomingDocument;
+    private long countOutgoingDocument;
+    private long countInternalDocument;
+    private long total;
+}
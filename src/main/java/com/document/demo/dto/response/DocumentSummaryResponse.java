@@ -0,0 +1,60 @@
+package com.document.demo.dto.response;
+
+import com.document.demo.models.Documents;
+import com.document.demo.models.enums.DocumentStatus;
+import com.document.demo.models.enums.DocumentType;
+import com.document.demo.models.enums.SecretLevel;
+import com.document.demo.models.enums.UrgencyLevel;
+import com.document.demo.models.reference.UserReference;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// List row for view=summary, the full document is served by GET /api/documents/{id}
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DocumentSummaryResponse {
+    private String documentId;
+    private String number;
+    private String title;
+    private String agencyUnit;
+    private DocumentType type;
+    private DocumentStatus status;
+    private UrgencyLevel urgencyLevel;
+    private SecretLevel secretLevel;
+    private LocalDateTime issueDate;
+    private LocalDateTime receivedDate;
+    private LocalDateTime sendDate;
+    private LocalDateTime expirationDate;
+    private LocalDateTime createdAt;
+    private String creatorId;
+    private String creatorName;
+
+    public static DocumentSummaryResponse from(Documents document) {
+        UserReference creator = document.getCreator() != null
+            ? document.getCreator()
+            : UserReference.from(document.getResolvedCreator());
+        return DocumentSummaryResponse.builder()
+            .documentId(document.getDocumentId())
+            .number(document.getNumber())
+            .title(document.getTitle())
+            .agencyUnit(document.getAgencyUnit())
+            .type(document.getType())
+            .status(document.getStatus())
+            .urgencyLevel(document.getUrgencyLevel())
+            .secretLevel(document.getSecretLevel())
+            .issueDate(document.getIssueDate())
+            .receivedDate(document.getReceivedDate())
+            .sendDate(document.getSendDate())
+            .expirationDate(document.getExpirationDate())
+            .createdAt(document.getCreatedAt())
+            .creatorId(creator != null ? creator.getUserId() : document.getCreatorId())
+            .creatorName(creator != null ? creator.getFullName() : null)
+            .build();
+    }
+}
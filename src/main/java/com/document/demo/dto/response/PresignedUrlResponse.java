@@ -0,0 +1,23 @@
+package com.document.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PresignedUrlResponse {
+    private String url;
+    private String method;
+    // Object key, sent back to the confirm endpoint after an upload
+    private String key;
+    private Instant expiresAt;
+    // Headers that are part of the signature and must be sent unchanged
+    private Map<String, String> headers;
+}
@@ -0,0 +1,21 @@
+package com.document.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class S3ObjectInfo {
+    private String key;
+    private long contentLength;
+    // Quoted, as returned by S3 and as sent in the ETag header
+    private String eTag;
+    private String contentType;
+    private Instant lastModified;
+}
@@ -0,0 +1,48 @@
+package com.document.demo.dto.response;
+
+import com.document.demo.models.enums.TrackingActionType;
+import com.document.demo.models.enums.TrackingEntityType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TrackingStatisticsResponse {
+    // Whole hours covered by the figures, end is exclusive
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private long total;
+    private Map<TrackingActionType, Long> byAction;
+    private Map<TrackingEntityType, Long> byEntityType;
+    private Map<String, Long> byDay;
+    private List<EntityCount> topEntities;
+    private List<ActorCount> topActors;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class EntityCount {
+        private TrackingEntityType entityType;
+        private String entityId;
+        private long count;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ActorCount {
+        private String userId;
+        private String username;
+        private long count;
+    }
+}
@@ -7,6 +7,7 @@ import jakarta.persistence.Enumerated;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -26,6 +27,7 @@ public class Distribution {
     @Builder.Default
     @NotNull(message = "Status is required")
     @Enumerated(EnumType.STRING)
+    @Indexed
     private DistributionStatus status = DistributionStatus.PENDING;
 
     @Builder.Default
@@ -35,14 +37,18 @@ public class Distribution {
     private String note;
 
     @Builder.Default
+    @Indexed
     private LocalDateTime timestamp = LocalDateTime.now();
 
     @DBRef
+    @Indexed
     private User sender;
 
     @DBRef
+    @Indexed
     private List<User> receivers;
 
     @DBRef
+    @Indexed
     private Documents documents;
 }
@@ -0,0 +1,31 @@
+package com.document.demo.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "document_stats_daily")
+public class DocumentStatsDaily {
+    // yyyy-MM-dd of the documents' createdAt
+    @Id
+    private String statsId;
+
+    @Indexed
+    private LocalDate date;
+
+    private long incoming;
+    private long outgoing;
+    private long internal;
+    private long other;
+    private long total;
+}
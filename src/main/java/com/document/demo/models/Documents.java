@@ -4,45 +4,68 @@ import com.document.demo.models.enums.DocumentStatus;
 import com.document.demo.models.enums.DocumentType;
 import com.document.demo.models.enums.SecretLevel;
 import com.document.demo.models.enums.UrgencyLevel;
+import com.document.demo.models.reference.UserReference;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
+import org.springframework.data.mongodb.core.convert.LazyLoadingProxy;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.TextScore;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @ToString
-@Document(collection = "documents")
+@Document(collection = "documents", language = "none")
+@CompoundIndexes({
+    @CompoundIndex(name = "type_status_createdAt", def = "{ 'type': 1, 'status': 1, 'createdAt': -1 }"),
+    @CompoundIndex(name = "type_createdAt", def = "{ 'type': 1, 'createdAt': -1 }"),
+    @CompoundIndex(name = "status_createdAt", def = "{ 'status': 1, 'createdAt': -1 }"),
+    @CompoundIndex(name = "type_receivedDate", def = "{ 'type': 1, 'receivedDate': -1 }"),
+    @CompoundIndex(name = "creator_userId", def = "{ 'creator.userId': 1 }")
+})
 public class Documents implements Cloneable{
     @Id
     private String documentId;
 
     @NotBlank(message = "Document number is required")
     @Indexed(unique = true)
+    @TextIndexed(weight = 5)
     private String number;
 
     @NotBlank(message = "Document title is required")
+    @TextIndexed(weight = 4)
     private String title;
 
     @NotBlank(message = "Document content is required")
+    @TextIndexed
     private String content;
 
     @Builder.Default
+    @Indexed
     private LocalDateTime issueDate = LocalDateTime.now();
 
+    @Indexed
     private LocalDateTime receivedDate;
     private LocalDateTime sendDate;
 
     @NotBlank(message = "Agency is required")
+    @TextIndexed(weight = 2)
     private String agencyUnit;
 
     @Builder.Default
@@ -55,10 +78,12 @@ public class Documents implements Cloneable{
 
     @NotBlank(message = "Document attachment is required")
     private String attachment;
+    @TextIndexed(weight = 3)
     private String keywords;
     
     @Builder.Default
     @Enumerated(EnumType.STRING)
+    @Indexed
     private UrgencyLevel urgencyLevel = UrgencyLevel.NORMAL;
 
     @Builder.Default
@@ -71,14 +96,79 @@ public class Documents implements Cloneable{
     private String logNote;
 
     @Builder.Default
+    @Indexed
     private LocalDateTime createdAt = LocalDateTime.now();
 
     @Builder.Default
     private LocalDateTime updatedAt = LocalDateTime.now();
 
-    @DBRef
+    // Only resolved on access, list views read the embedded creator instead
+    @DBRef(lazy = true)
+    @JsonIgnore
+    @Indexed
     private User createBy;
 
+    @JsonIgnore
+    private UserReference creator;
+
+    // Creator loaded for a whole page by ReferenceResolver, not persisted
+    @Transient
+    @JsonIgnore
+    private User resolvedCreator;
+
+    // Accent-folded copies used by search and suggestions, maintained on write
+    @JsonIgnore
+    @Indexed
+    private String titleNorm;
+
+    @JsonIgnore
+    @Indexed
+    private String agencyUnitNorm;
+
+    @JsonIgnore
+    @Indexed
+    private List<String> keywordTokens;
+
+    // Relevance of the last full-text search, not persisted
+    @TextScore
+    @JsonIgnore
+    private Float score;
+
+    // Serialized under createBy as before: the creator loaded for the page, else the stored reference,
+    // else a user rebuilt from the embedded creator
+    @Transient
+    @JsonProperty("createBy")
+    public User getCreatorView() {
+        if (resolvedCreator != null) {
+            return resolvedCreator;
+        }
+        if (createBy instanceof LazyLoadingProxy proxy) {
+            return (User) proxy.getTarget();
+        }
+        if (createBy != null || creator == null) {
+            return createBy;
+        }
+        return User.builder()
+                .userId(creator.getUserId())
+                .username(creator.getUsername())
+                .fullName(creator.getFullName())
+                .build();
+    }
+
+    // Read from the embedded creator, or from the DBRef without resolving the lazy proxy
+    @Transient
+    @JsonIgnore
+    public String getCreatorId() {
+        if (creator != null) {
+            return creator.getUserId();
+        }
+        if (createBy instanceof LazyLoadingProxy proxy) {
+            com.mongodb.DBRef ref = proxy.toDBRef();
+            return ref != null ? String.valueOf(ref.getId()) : null;
+        }
+        return createBy != null ? createBy.getUserId() : null;
+    }
+
     @Override
     public Documents clone() {
         try {
@@ -3,6 +3,9 @@ package com.document.demo.models;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -14,6 +17,10 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Builder
 @Document(collection = "notifications")
+@CompoundIndexes({
+    @CompoundIndex(name = "user_read_timestamp", def = "{ 'user': 1, 'read': 1, 'timestamp': -1 }"),
+    @CompoundIndex(name = "user_timestamp", def = "{ 'user': 1, 'timestamp': -1 }")
+})
 public class Notification {
     @Id
     private String notificationId;
@@ -22,16 +29,18 @@ public class Notification {
     private String message;
 
     @Builder.Default
+    @Indexed
     private LocalDateTime timestamp = LocalDateTime.now();
 
     @Builder.Default
     private boolean read = false;
 
-    @DBRef
+    @DBRef(lazy = true)
     @JsonIgnore
     private User user;
 
-    @DBRef
+    @DBRef(lazy = true)
     @JsonIgnore
+    @Indexed
     private Documents document;
 } 
\ No newline at end of file
@@ -13,6 +13,9 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 import com.document.demo.models.enums.TrackingEntityType;
@@ -22,6 +25,12 @@ import com.document.demo.models.enums.TrackingEntityType;
 @AllArgsConstructor
 @Builder
 @Document(collection = "tracking")
+@CompoundIndexes({
+    @CompoundIndex(name = "entity_timestamp_id", def = "{ 'entityType': 1, 'entityId': 1, 'timestamp': -1, '_id': -1 }"),
+    @CompoundIndex(name = "entityType_timestamp", def = "{ 'entityType': 1, 'timestamp': -1 }"),
+    @CompoundIndex(name = "actor_timestamp_id", def = "{ 'actor': 1, 'timestamp': -1, '_id': -1 }"),
+    @CompoundIndex(name = "timestamp_id", def = "{ 'timestamp': -1, '_id': -1 }")
+})
 public class Tracking {
     @Id
     private String trackingId;
@@ -34,6 +43,7 @@ public class Tracking {
     private String entityId;
     
     @Enumerated(EnumType.STRING)
+    @Indexed
     private TrackingActionType action;
     
     private String description;
@@ -46,6 +56,24 @@ public class Tracking {
     private DeviceInfo deviceInfo;
 
     private Map<String, Object> metadata;
+
+    // Audit payload format, null for records written before AuditEventCompactor
+    private Integer schemaVersion;
+
+    // End of the retention of the entity type, the archive job picks the record up before this
+    @Indexed
+    private LocalDateTime retainUntil;
+
+    // Only set once the record is archived, the TTL index removes the record after this
+    @Indexed(name = "expireAt_ttl", expireAfter = "0s")
+    private LocalDateTime expireAt;
+
+    // Set once the record has been written to a tracking archive file
+    private Boolean archived;
+
+    // Archive run that wrote the record, until that run's file is complete
+    @Indexed(sparse = true)
+    private String archiveRun;
 }
 
 
@@ -0,0 +1,33 @@
+package com.document.demo.models;
+
+import com.document.demo.models.enums.TrackingActionType;
+import com.document.demo.models.enums.TrackingEntityType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "tracking_stats_hourly")
+@CompoundIndex(name = "hour_entityType", def = "{ 'hour': 1, 'entityType': 1 }")
+public class TrackingStatsHourly {
+    // <hour>|<entityType>|<action>, hour as yyyy-MM-ddTHH:00
+    @Id
+    private String statsId;
+
+    private LocalDateTime hour;
+    private TrackingEntityType entityType;
+    private TrackingActionType action;
+    private long count;
+
+    // Last live upsert or rebuild, buckets the rebuild did not touch are removed
+    private LocalDateTime updatedAt;
+}
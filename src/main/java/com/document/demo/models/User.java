@@ -26,7 +26,7 @@ import java.util.Collections;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @Document(collection = "users")
 public class User implements UserDetails {
     @Id
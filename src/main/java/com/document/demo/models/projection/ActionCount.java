@@ -0,0 +1,16 @@
+package com.document.demo.models.projection;
+
+import com.document.demo.models.enums.TrackingActionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActionCount {
+    @Id
+    private TrackingActionType action;
+    private long count;
+}
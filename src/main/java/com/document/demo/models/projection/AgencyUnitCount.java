@@ -0,0 +1,15 @@
+package com.document.demo.models.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgencyUnitCount {
+    @Id
+    private String agencyUnit;
+    private long count;
+}
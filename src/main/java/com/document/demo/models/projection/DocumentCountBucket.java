@@ -0,0 +1,20 @@
+package com.document.demo.models.projection;
+
+import com.document.demo.models.enums.DocumentStatus;
+import com.document.demo.models.enums.DocumentType;
+import com.document.demo.models.enums.SecretLevel;
+import com.document.demo.models.enums.UrgencyLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentCountBucket {
+    private DocumentType type;
+    private DocumentStatus status;
+    private UrgencyLevel urgencyLevel;
+    private SecretLevel secretLevel;
+    private long count;
+}
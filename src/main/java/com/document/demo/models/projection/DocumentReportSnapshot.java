@@ -0,0 +1,68 @@
+package com.document.demo.models.projection;
+
+import com.document.demo.models.enums.DocumentStatus;
+import com.document.demo.models.enums.DocumentType;
+import com.document.demo.models.enums.SecretLevel;
+import com.document.demo.models.enums.UrgencyLevel;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+// Document counts per type x status x urgencyLevel x secretLevel, computed by a single aggregation
+@Getter
+public class DocumentReportSnapshot {
+    private final List<DocumentCountBucket> buckets;
+    private final LocalDateTime generatedAt;
+
+    public DocumentReportSnapshot(List<DocumentCountBucket> buckets, LocalDateTime generatedAt) {
+        this.buckets = List.copyOf(buckets);
+        this.generatedAt = generatedAt;
+    }
+
+    public long getTotal() {
+        return count(bucket -> true);
+    }
+
+    public long countByType(DocumentType type) {
+        return count(bucket -> bucket.getType() == type);
+    }
+
+    public long countByTypeAndStatus(DocumentType type, DocumentStatus status) {
+        return count(bucket -> bucket.getType() == type && bucket.getStatus() == status);
+    }
+
+    public Map<DocumentStatus, Long> getCountByStatus() {
+        return group(DocumentStatus.class, DocumentCountBucket::getStatus);
+    }
+
+    public Map<UrgencyLevel, Long> getCountByUrgencyLevel() {
+        return group(UrgencyLevel.class, DocumentCountBucket::getUrgencyLevel);
+    }
+
+    public Map<SecretLevel, Long> getCountBySecretLevel() {
+        return group(SecretLevel.class, DocumentCountBucket::getSecretLevel);
+    }
+
+    private long count(Predicate<DocumentCountBucket> filter) {
+        return buckets.stream()
+                .filter(filter)
+                .mapToLong(DocumentCountBucket::getCount)
+                .sum();
+    }
+
+    private <E extends Enum<E>> Map<E, Long> group(Class<E> keyType, Function<DocumentCountBucket, E> key) {
+        Map<E, Long> counts = new EnumMap<>(keyType);
+        for (E value : keyType.getEnumConstants()) {
+            counts.put(value, 0L);
+        }
+        buckets.stream()
+                .filter(bucket -> key.apply(bucket) != null)
+                .forEach(bucket -> counts.merge(key.apply(bucket), bucket.getCount(), Long::sum));
+        return counts;
+    }
+}
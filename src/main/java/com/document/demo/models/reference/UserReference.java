@@ -0,0 +1,29 @@
+package com.document.demo.models.reference;
+
+import com.document.demo.models.User;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Inline copy of the user fields shown next to a referencing entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserReference {
+    private String userId;
+    private String username;
+    private String fullName;
+
+    public static UserReference from(User user) {
+        if (user == null) {
+            return null;
+        }
+        return UserReference.builder()
+                .userId(user.getUserId())
+                .username(user.getUsername())
+                .fullName(user.getFullName())
+                .build();
+    }
+}
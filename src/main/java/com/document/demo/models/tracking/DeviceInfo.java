@@ -16,5 +16,9 @@ public class DeviceInfo {
     private String browser;
     private String operatingSystem;
     private String location;
+    // Only set on records written before device info was captured per request
     private String sessionId;
+    // Hash of ip and user agent, stable for a client without creating a session
+    private String clientId;
+    private String requestId;
 } 
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.document.demo.repository;
+
+import com.mongodb.DBRef;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Reads entities with their eager DBRefs resolved by one $in query per referenced property,
+// where the mapping layer looks every reference of every row up on its own.
+// The query is run against the raw collection, so criteria must hold stored values (DBRef, ObjectId).
+final class BatchReferenceReader {
+    private BatchReferenceReader() {
+    }
+
+    static <T> List<T> find(MongoTemplate mongoTemplate, Query query, Class<T> type) {
+        MongoConverter converter = mongoTemplate.getConverter();
+        MongoPersistentEntity<?> entity = converter.getMappingContext().getRequiredPersistentEntity(type);
+
+        List<MongoPersistentProperty> references = new ArrayList<>();
+        for (MongoPersistentProperty property : entity) {
+            if (property.isDbReference() && !property.getDBRef().lazy()) {
+                references.add(property);
+            }
+        }
+
+        List<Document> rows = mongoTemplate.find(query, Document.class, entity.getCollection());
+
+        // The references are taken out before mapping so the converter does not resolve them
+        List<Map<MongoPersistentProperty, Object>> stored = new ArrayList<>(rows.size());
+        Map<MongoPersistentProperty, Set<Object>> ids = new HashMap<>();
+        for (Document row : rows) {
+            Map<MongoPersistentProperty, Object> values = new HashMap<>();
+            for (MongoPersistentProperty property : references) {
+                Object value = row.remove(property.getFieldName());
+                if (value != null) {
+                    values.put(property, value);
+                    for (DBRef ref : refs(value)) {
+                        ids.computeIfAbsent(property, key -> new LinkedHashSet<>()).add(ref.getId());
+                    }
+                }
+            }
+            stored.add(values);
+        }
+
+        Map<MongoPersistentProperty, Map<String, Object>> loaded = new HashMap<>();
+        ids.forEach((property, keys) -> loaded.put(property, load(mongoTemplate, property, keys)));
+
+        List<T> result = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            T bean = converter.read(type, rows.get(i));
+            PersistentPropertyAccessor<T> accessor = entity.getPropertyAccessor(bean);
+            stored.get(i).forEach((property, value) -> {
+                Map<String, Object> targets = loaded.get(property);
+                if (property.isCollectionLike()) {
+                    List<Object> resolved = new ArrayList<>();
+                    for (DBRef ref : refs(value)) {
+                        Object target = targets.get(String.valueOf(ref.getId()));
+                        if (target != null) {
+                            resolved.add(target);
+                        }
+                    }
+                    accessor.setProperty(property, resolved);
+                } else {
+                    accessor.setProperty(property, targets.get(String.valueOf(((DBRef) value).getId())));
+                }
+            });
+            result.add(accessor.getBean());
+        }
+        return result;
+    }
+
+    // Stored form of an entity reference, for criteria on DBRef fields
+    static DBRef reference(MongoTemplate mongoTemplate, Class<?> type, String id) {
+        return new DBRef(mongoTemplate.getCollectionName(type), ObjectId.isValid(id) ? new ObjectId(id) : id);
+    }
+
+    private static Map<String, Object> load(MongoTemplate mongoTemplate, MongoPersistentProperty property,
+                                            Set<Object> keys) {
+        Class<?> targetType = property.getActualType();
+        MongoPersistentEntity<?> target = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(targetType);
+
+        Map<String, Object> byId = new HashMap<>();
+        for (Object bean : mongoTemplate.find(Query.query(Criteria.where("_id").in(keys)), targetType)) {
+            byId.put(String.valueOf(target.getIdentifierAccessor(bean).getIdentifier()), bean);
+        }
+        return byId;
+    }
+
+    private static List<DBRef> refs(Object value) {
+        if (value instanceof DBRef ref) {
+            return List.of(ref);
+        }
+        List<DBRef> refs = new ArrayList<>();
+        if (value instanceof Collection<?> values) {
+            for (Object item : values) {
+                if (item instanceof DBRef ref) {
+                    refs.add(ref);
+                }
+            }
+        }
+        return refs;
+    }
+}
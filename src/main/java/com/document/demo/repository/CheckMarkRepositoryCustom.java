@@ -0,0 +1,14 @@
+package com.document.demo.repository;
+
+import com.document.demo.models.CheckMark;
+import com.document.demo.models.Documents;
+import com.document.demo.models.Folder;
+
+import java.util.List;
+
+// List reads resolve folder and document for the whole result at once
+public interface CheckMarkRepositoryCustom {
+    List<CheckMark> findByFolder(Folder folder);
+    List<CheckMark> findByDocument(Documents document);
+    List<CheckMark> findAll();
+}
@@ -0,0 +1,37 @@
+package com.document.demo.repository;
+
+import com.document.demo.models.CheckMark;
+import com.document.demo.models.Documents;
+import com.document.demo.models.Folder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class CheckMarkRepositoryCustomImpl implements CheckMarkRepositoryCustom {
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<CheckMark> findByFolder(Folder folder) {
+        return find(Query.query(Criteria.where("folder")
+                .is(BatchReferenceReader.reference(mongoTemplate, Folder.class, folder.getFolderId()))));
+    }
+
+    @Override
+    public List<CheckMark> findByDocument(Documents document) {
+        return find(Query.query(Criteria.where("document")
+                .is(BatchReferenceReader.reference(mongoTemplate, Documents.class, document.getDocumentId()))));
+    }
+
+    @Override
+    public List<CheckMark> findAll() {
+        return find(new Query());
+    }
+
+    private List<CheckMark> find(Query query) {
+        return BatchReferenceReader.find(mongoTemplate, query, CheckMark.class);
+    }
+}
@@ -0,0 +1,17 @@
+package com.document.demo.repository;
+
+import com.document.demo.models.Distribution;
+import com.document.demo.models.User;
+import com.document.demo.models.enums.DistributionStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// List reads resolve sender, receivers and documents for the whole result at once
+public interface DistributionRepositoryCustom {
+    List<Distribution> findBySender(User sender);
+    List<Distribution> findByReceiversContaining(User receiver);
+    List<Distribution> findByStatus(DistributionStatus status);
+    List<Distribution> findByTimestampBetween(LocalDateTime start, LocalDateTime end);
+    List<Distribution> findAll();
+}
@@ -0,0 +1,51 @@
+package com.document.demo.repository;
+
+import com.document.demo.models.Distribution;
+import com.document.demo.models.User;
+import com.document.demo.models.enums.DistributionStatus;
+import com.mongodb.DBRef;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class DistributionRepositoryCustomImpl implements DistributionRepositoryCustom {
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Distribution> findBySender(User sender) {
+        return find(Query.query(Criteria.where("sender").is(userRef(sender))));
+    }
+
+    @Override
+    public List<Distribution> findByReceiversContaining(User receiver) {
+        return find(Query.query(Criteria.where("receivers").is(userRef(receiver))));
+    }
+
+    @Override
+    public List<Distribution> findByStatus(DistributionStatus status) {
+        return find(Query.query(Criteria.where("status").is(status.name())));
+    }
+
+    @Override
+    public List<Distribution> findByTimestampBetween(LocalDateTime start, LocalDateTime end) {
+        return find(Query.query(Criteria.where("timestamp").gt(start).lt(end)));
+    }
+
+    @Override
+    public List<Distribution> findAll() {
+        return find(new Query());
+    }
+
+    private List<Distribution> find(Query query) {
+        return BatchReferenceReader.find(mongoTemplate, query, Distribution.class);
+    }
+
+    private DBRef userRef(User user) {
+        return BatchReferenceReader.reference(mongoTemplate, User.class, user.getUserId());
+    }
+}
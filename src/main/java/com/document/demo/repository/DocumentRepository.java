@@ -4,8 +4,9 @@ import com.document.demo.models.Documents;
 import com.document.demo.models.User;
 import com.document.demo.models.enums.DocumentStatus;
 import com.document.demo.models.enums.DocumentType;
-import com.document.demo.models.enums.SecretLevel;
 import com.document.demo.models.enums.UrgencyLevel;
+import com.document.demo.models.projection.AgencyUnitCount;
+import com.document.demo.models.projection.DocumentCountBucket;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.Aggregation;
@@ -19,7 +20,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface DocumentRepository extends MongoRepository<Documents, String> {
+public interface DocumentRepository extends MongoRepository<Documents, String>, DocumentRepositoryCustom {
     Optional<Documents> findByNumber(String number);
     List<Documents> findByCreateBy(User creator);
     List<Documents> findByStatus(DocumentStatus status);
@@ -47,60 +48,6 @@ public interface DocumentRepository extends MongoRepository<Documents, String> {
     Page<Documents> findByTypeAndStatus(DocumentType type, DocumentStatus status, Pageable pageable);
     Page<Documents> findByStatus(DocumentStatus status, Pageable pageable);
 
-    @Aggregation(pipeline = {
-        // Join với collection users
-        "{ $lookup: { " +
-            "from: 'users', " +
-            "localField: 'createBy.$id', " +
-            "foreignField: '_id', " +
-            "as: 'creator' " +
-        "} }",
-        // Unwind để chuyển array creator thành object
-        "{ $unwind: { " +
-            "path: '$creator', " +
-            "preserveNullAndEmptyArrays: true " +
-        "} }",
-        // Match với điều kiện tìm kiếm
-        "{ $match: { " +
-            "$and: [ " +
-                // Type condition (if provided)
-                "{ $or: [ " +
-                    "{ 'type': ?3 }, " +  // Match exact type if provided
-                    "{ $expr: { $eq: [?3, null] } }" +  // Skip type condition if null
-                "] }, " +
-                // Date range condition (if provided)
-                "{ $or: [ " +
-                    "{ 'issueDate': { $gte: ?1, $lte: ?2 }}, " +
-                    "{ 'receivedDate': { $gte: ?1, $lte: ?2 }}, " +
-                    "{ 'sendDate': { $gte: ?1, $lte: ?2 }}, " +
-                    "{ 'createdAt': { $gte: ?1, $lte: ?2 }} " +
-                "] }, " +
-                // Keyword search
-                "{ $or: [ " +
-                    // Document fields
-                    "{ 'number': { $regex: ?0, $options: 'i' }}, " +
-                    "{ 'title': { $regex: ?0, $options: 'i' }}, " +
-                    "{ 'content': { $regex: ?0, $options: 'i' }}, " +
-                    "{ 'agencyUnit': { $regex: ?0, $options: 'i' }}, " +
-                    "{ 'keywords': { $regex: ?0, $options: 'i' }}, " +
-                    "{ 'logNote': { $regex: ?0, $options: 'i' }}, " +
-                    "{ 'type': { $regex: ?0, $options: 'i' }}, " +
-                    "{ 'status': { $regex: ?0, $options: 'i' }}, " +
-                    "{ 'urgencyLevel': { $regex: ?0, $options: 'i' }}, " +
-                    "{ 'secretLevel': { $regex: ?0, $options: 'i' }}, " +
-                    
-                    // User fields
-                    "{ 'creator.username': { $regex: ?0, $options: 'i' }}, " +
-                    "{ 'creator.fullName': { $regex: ?0, $options: 'i' }}, " +
-                    "{ 'creator.email': { $regex: ?0, $options: 'i' }} " +
-                "] } " +
-            "] " +
-        "} }",
-        // Sort
-        "{ $sort: { 'createdAt': -1 } }"
-    })
-    List<Documents> searchDocumentsWithCreator(String keyword, LocalDateTime startDate, LocalDateTime endDate, DocumentType type);
-
     @Query(value = "{ 'type': ?0 }", count = true)
     long countByType(DocumentType type);
 
@@ -108,45 +55,39 @@ public interface DocumentRepository extends MongoRepository<Documents, String> {
     long countByTypeAndStatus(DocumentType type, DocumentStatus status);
 
     @Aggregation(pipeline = {
-        "{ $match: { 'agencyUnit': { $regex: ?0, $options: 'i' } } }",
-        "{ $group: { _id: '$agencyUnit' } }",
-        "{ $limit: ?1 }"
+        "{ $group: { " +
+            "_id: { type: '$type', status: '$status', urgencyLevel: '$urgencyLevel', secretLevel: '$secretLevel' }, " +
+            "count: { $sum: 1 } " +
+        "} }",
+        "{ $project: { " +
+            "_id: 0, type: '$_id.type', status: '$_id.status', " +
+            "urgencyLevel: '$_id.urgencyLevel', secretLevel: '$_id.secretLevel', count: 1 " +
+        "} }"
+    })
+    List<DocumentCountBucket> countByTypeStatusUrgencyAndSecretLevel();
+
+    @Aggregation(pipeline = {
+        "{ $match: { 'type': ?0 } }",
+        "{ $group: { _id: '$status', count: { $sum: 1 } } }",
+        "{ $project: { _id: 0, status: '$_id', count: 1 } }"
+    })
+    List<DocumentCountBucket> countByStatusForType(DocumentType type);
+
+    @Aggregation(pipeline = {
+        "{ $match: { 'agencyUnitNorm': { $regex: ?0 } } }",
+        "{ $group: { _id: '$agencyUnit', count: { $sum: 1 } } }",
+        "{ $sort: { count: -1, _id: 1 } }",
+        "{ $limit: ?1 }",
+        "{ $project: { _id: 1 } }"
     })
     List<String> suggestAgencyUnits(String keyword, int limit);
 
-    @Query("{ $and: [ " +
-           "{ 'type': ?0 }, " +
-           "{ 'agencyUnit': { $regex: ?1, $options: 'i' } }, " +
-           "{ $or: [ " +
-               "{ 'status': ?2 }, " +
-               "{ $expr: { $eq: [?2, null] } }" +
-           "] }, " +
-           "{ $or: [ " +
-               "{ 'urgencyLevel': ?3 }, " +
-               "{ $expr: { $eq: [?3, null] } }" +
-           "] }, " +
-           "{ $or: [ " +
-               "{ 'secretLevel': ?4 }, " +
-               "{ $expr: { $eq: [?4, null] } }" +
-           "] }, " +
-           "{ $or: [ " +
-               "{ 'receivedDate': { $gte: ?5, $lte: ?6 } }, " +
-               "{ $and: [ " +
-                   "{ $expr: { $eq: [?5, null] } }, " +
-                   "{ $expr: { $eq: [?6, null] } } " +
-               "] }" +
-           "] }" +
-           "] }")
-    Page<Documents> filterDocuments(
-        DocumentType type,
-        String agencyUnit,
-        DocumentStatus status,
-        UrgencyLevel urgencyLevel,
-        SecretLevel secretLevel,
-        LocalDateTime startDate,
-        LocalDateTime endDate,
-        Pageable pageable
-    );
+    @Aggregation(pipeline = {
+        "{ $match: { 'agencyUnit': { $type: 'string' } } }",
+        "{ $group: { _id: '$agencyUnit', count: { $sum: 1 } } }"
+    })
+    List<AgencyUnitCount> countByAgencyUnit();
+
     @Query(value = "{'type': ?0, 'createdAt': { $gte: ?1, $lt: ?2 }}", count = true)
     long countByTypeAndDateRange(String type, Date startDate, Date endDate);
 
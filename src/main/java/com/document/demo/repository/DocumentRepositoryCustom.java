@@ -0,0 +1,34 @@
+package com.document.demo.repository;
+
+import com.document.demo.dto.request.FilterRequest;
+import com.document.demo.models.Documents;
+import com.document.demo.models.enums.DocumentStatus;
+import com.document.demo.models.enums.DocumentType;
+import com.document.demo.models.reference.UserReference;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface DocumentRepositoryCustom {
+    Page<Documents> searchDocumentsWithCreator(String keyword, LocalDateTime startDate, LocalDateTime endDate,
+                                               DocumentType type, Pageable pageable);
+
+    Page<Documents> searchDocumentSummaries(String keyword, LocalDateTime startDate, LocalDateTime endDate,
+                                            DocumentType type, Pageable pageable);
+
+    Page<Documents> findSummaries(DocumentType type, DocumentStatus status, Pageable pageable);
+
+    List<Documents> findRecentSummaries(DocumentType type, int limit);
+
+    Page<Documents> filterDocuments(FilterRequest request, Pageable pageable);
+
+    Page<Documents> fullTextSearch(String keyword, DocumentType type, Pageable pageable);
+
+    long backfillSearchFields();
+
+    long migrateCreatorReferences();
+
+    long refreshCreatorReferences(UserReference creator);
+}
@@ -0,0 +1,316 @@
+package com.document.demo.repository;
+
+import com.document.demo.dto.request.FilterRequest;
+import com.document.demo.models.Documents;
+import com.document.demo.models.User;
+import com.document.demo.models.enums.DocumentStatus;
+import com.document.demo.models.enums.DocumentType;
+import com.document.demo.models.reference.UserReference;
+import com.mongodb.DBRef;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.ProjectionOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.document.demo.utils.VietnameseTextUtils.normalize;
+import static com.document.demo.utils.VietnameseTextUtils.tokenize;
+
+@RequiredArgsConstructor
+public class DocumentRepositoryCustomImpl implements DocumentRepositoryCustom {
+    private static final String COLLECTION = "documents";
+    private static final int BACKFILL_BATCH_SIZE = 500;
+    private static final int CREATOR_MATCH_LIMIT = 100;
+
+    // Fields read by list views, leaves out content, keywords and logNote. createBy stays as a lazy
+    // reference for documents written before the embedded creator
+    private static final String[] SUMMARY_FIELDS = {
+            "number", "title", "agencyUnit", "type", "status", "urgencyLevel", "secretLevel",
+            "issueDate", "receivedDate", "sendDate", "expirationDate", "createdAt", "creator", "createBy"
+    };
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Page<Documents> searchDocumentsWithCreator(String keyword, LocalDateTime startDate, LocalDateTime endDate,
+                                                      DocumentType type, Pageable pageable) {
+        return search(keyword, startDate, endDate, type, pageable, null);
+    }
+
+    @Override
+    public Page<Documents> searchDocumentSummaries(String keyword, LocalDateTime startDate, LocalDateTime endDate,
+                                                   DocumentType type, Pageable pageable) {
+        return search(keyword, startDate, endDate, type, pageable, Aggregation.project(SUMMARY_FIELDS));
+    }
+
+    @Override
+    public Page<Documents> findSummaries(DocumentType type, DocumentStatus status, Pageable pageable) {
+        Query query = new Query().with(pageable);
+        if (type != null) {
+            query.addCriteria(Criteria.where("type").is(type));
+        }
+        if (status != null) {
+            query.addCriteria(Criteria.where("status").is(status));
+        }
+        query.fields().include(SUMMARY_FIELDS);
+
+        List<Documents> content = mongoTemplate.find(query, Documents.class);
+
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> mongoTemplate.count(Query.of(query).limit(-1).skip(-1), Documents.class));
+    }
+
+    @Override
+    public List<Documents> findRecentSummaries(DocumentType type, int limit) {
+        Query query = new Query()
+                .with(Sort.by(Sort.Direction.DESC, "createdAt"))
+                .limit(limit);
+        if (type != null) {
+            query.addCriteria(Criteria.where("type").is(type));
+        }
+        query.fields().include(SUMMARY_FIELDS);
+
+        return mongoTemplate.find(query, Documents.class);
+    }
+
+    private Page<Documents> search(String keyword, LocalDateTime startDate, LocalDateTime endDate,
+                                   DocumentType type, Pageable pageable, ProjectionOperation projection) {
+        // Everything is matched in the first stage, so the text index and the field indexes serve it
+        Criteria criteria = new Criteria().andOperator(
+                documentCriteria(startDate, endDate, type),
+                keywordCriteria(keyword));
+
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : Sort.by(Sort.Direction.DESC, "createdAt");
+        List<AggregationOperation> page = new ArrayList<>(List.of(
+                Aggregation.sort(sort),
+                Aggregation.skip(pageable.getOffset()),
+                Aggregation.limit(pageable.getPageSize())));
+        if (projection != null) {
+            page.add(projection);
+        }
+
+        // Page and count in the same round-trip
+        List<AggregationOperation> operations = List.of(
+                Aggregation.match(criteria),
+                Aggregation.facet(page.toArray(AggregationOperation[]::new))
+                        .as("content")
+                        .and(Aggregation.count().as("total"))
+                        .as("total"));
+
+        Document result = mongoTemplate
+                .aggregate(Aggregation.newAggregation(operations), COLLECTION, Document.class)
+                .getUniqueMappedResult();
+
+        if (result == null) {
+            return new PageImpl<>(List.of(), pageable, 0);
+        }
+
+        List<Documents> content = result.getList("content", Document.class).stream()
+                .map(document -> mongoTemplate.getConverter().read(Documents.class, document))
+                .toList();
+
+        List<Document> total = result.getList("total", Document.class);
+        long totalElements = total.isEmpty() ? 0 : ((Number) total.get(0).get("total")).longValue();
+
+        return new PageImpl<>(content, pageable, totalElements);
+    }
+
+    @Override
+    public Page<Documents> filterDocuments(FilterRequest request, Pageable pageable) {
+        Query query = FilterQueryBuilder.build(request, pageable);
+
+        List<Documents> content = mongoTemplate.find(query, Documents.class);
+
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> mongoTemplate.count(Query.of(query).limit(-1).skip(-1), Documents.class));
+    }
+
+    @Override
+    public Page<Documents> fullTextSearch(String keyword, DocumentType type, Pageable pageable) {
+        TextCriteria textCriteria = TextCriteria.forDefaultLanguage().matching(keyword);
+
+        // Results are ranked by text score, so the caller's sort is ignored
+        Query query = TextQuery.queryText(textCriteria)
+                .sortByScore()
+                .with(PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+        if (type != null) {
+            query.addCriteria(Criteria.where("type").is(type));
+        }
+
+        List<Documents> content = mongoTemplate.find(query, Documents.class);
+
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> mongoTemplate.count(Query.of(query).limit(-1).skip(-1), Documents.class));
+    }
+
+    @Override
+    public long backfillSearchFields() {
+        Query query = new Query();
+        query.fields().include("number", "title", "keywords", "agencyUnit");
+
+        long updated = 0;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION);
+        int pending = 0;
+
+        try (Stream<Document> stream = mongoTemplate.stream(query, Document.class, COLLECTION)) {
+            Iterator<Document> cursor = stream.iterator();
+            while (cursor.hasNext()) {
+                Document source = cursor.next();
+                bulk.updateOne(
+                        Query.query(Criteria.where("_id").is(source.get("_id"))),
+                        new Update()
+                                .set("titleNorm", normalize(source.getString("title")))
+                                .set("agencyUnitNorm", normalize(source.getString("agencyUnit")))
+                                .set("keywordTokens", tokenize(
+                                        source.getString("number"),
+                                        source.getString("title"),
+                                        source.getString("keywords"),
+                                        source.getString("agencyUnit"))));
+
+                if (++pending == BACKFILL_BATCH_SIZE) {
+                    updated += bulk.execute().getModifiedCount();
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION);
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) {
+            updated += bulk.execute().getModifiedCount();
+        }
+        return updated;
+    }
+
+    @Override
+    public long migrateCreatorReferences() {
+        Query query = Query.query(Criteria.where("creator").exists(false).and("createBy").exists(true));
+        query.fields().include("createBy");
+
+        long updated = 0;
+        Map<Object, Object> creatorIds = new HashMap<>();
+
+        try (Stream<Document> stream = mongoTemplate.stream(query, Document.class, COLLECTION)) {
+            Iterator<Document> cursor = stream.iterator();
+            while (cursor.hasNext()) {
+                Document source = cursor.next();
+                if (source.get("createBy") instanceof DBRef ref) {
+                    creatorIds.put(source.get("_id"), ref.getId());
+                }
+
+                if (creatorIds.size() == BACKFILL_BATCH_SIZE) {
+                    updated += writeCreatorReferences(creatorIds);
+                    creatorIds.clear();
+                }
+            }
+        }
+        if (!creatorIds.isEmpty()) {
+            updated += writeCreatorReferences(creatorIds);
+        }
+        return updated;
+    }
+
+    @Override
+    public long refreshCreatorReferences(UserReference creator) {
+        return mongoTemplate.updateMulti(
+                Query.query(Criteria.where("creator.userId").is(creator.getUserId())),
+                new Update().set("creator", creator),
+                Documents.class
+        ).getModifiedCount();
+    }
+
+    // One users query and one bulk write per batch of documents
+    private long writeCreatorReferences(Map<Object, Object> creatorIds) {
+        Query userQuery = Query.query(Criteria.where("_id").in(creatorIds.values()));
+        userQuery.fields().include("username", "fullName");
+
+        Map<String, UserReference> references = mongoTemplate.find(userQuery, User.class).stream()
+                .collect(Collectors.toMap(User::getUserId, UserReference::from));
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Documents.class);
+        int pending = 0;
+        for (Map.Entry<Object, Object> entry : creatorIds.entrySet()) {
+            UserReference reference = references.get(String.valueOf(entry.getValue()));
+            if (reference == null) {
+                continue;
+            }
+            bulk.updateOne(
+                    Query.query(Criteria.where("_id").is(entry.getKey())),
+                    new Update().set("creator", reference));
+            pending++;
+        }
+        return pending > 0 ? bulk.execute().getModifiedCount() : 0;
+    }
+
+    private Criteria documentCriteria(LocalDateTime startDate, LocalDateTime endDate, DocumentType type) {
+        Criteria dateRange = new Criteria().orOperator(
+                Criteria.where("issueDate").gte(startDate).lte(endDate),
+                Criteria.where("receivedDate").gte(startDate).lte(endDate),
+                Criteria.where("sendDate").gte(startDate).lte(endDate),
+                Criteria.where("createdAt").gte(startDate).lte(endDate)
+        );
+
+        if (type == null) {
+            return dateRange;
+        }
+        return new Criteria().andOperator(Criteria.where("type").is(type), dateRange);
+    }
+
+    // MongoDB only accepts $text inside an $or when every other clause can use an index too
+    private Criteria keywordCriteria(String keyword) {
+        // Anchored, so the titleNorm and agencyUnitNorm indexes are read as a range instead of in full
+        String normalizedPrefix = "^" + Pattern.quote(normalize(keyword));
+
+        List<Criteria> clauses = new ArrayList<>(List.of(
+                // Weighted text index on number, title, content, agencyUnit and keywords
+                Criteria.where("$text").is(new Document("$search", keyword)),
+
+                // Accent-insensitive shadow fields
+                Criteria.where("keywordTokens").all(tokenize(keyword)),
+                Criteria.where("titleNorm").regex(normalizedPrefix),
+                Criteria.where("agencyUnitNorm").regex(normalizedPrefix)
+        ));
+
+        List<String> creatorIds = findCreatorIds(keyword);
+        if (!creatorIds.isEmpty()) {
+            clauses.add(Criteria.where("creator.userId").in(creatorIds));
+        }
+        return new Criteria().orOperator(clauses);
+    }
+
+    // Creator fields are matched in users, which is small, then joined through the indexed creator.userId
+    private List<String> findCreatorIds(String keyword) {
+        String quoted = Pattern.quote(keyword);
+        Query query = Query.query(new Criteria().orOperator(
+                Criteria.where("username").regex(quoted, "i"),
+                Criteria.where("fullName").regex(quoted, "i"),
+                Criteria.where("email").regex(quoted, "i")
+        )).limit(CREATOR_MATCH_LIMIT);
+        query.fields().include("_id");
+
+        return mongoTemplate.find(query, User.class).stream()
+                .map(User::getUserId)
+                .toList();
+    }
+}
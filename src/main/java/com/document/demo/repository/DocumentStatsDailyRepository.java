@@ -0,0 +1,15 @@
+package com.document.demo.repository;
+
+import com.document.demo.models.DocumentStatsDaily;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DocumentStatsDailyRepository extends MongoRepository<DocumentStatsDaily, String> {
+    @Query(value = "{ 'date': { $gte: ?0, $lte: ?1 } }", sort = "{ 'date': 1 }")
+    List<DocumentStatsDaily> findByDateRange(LocalDate start, LocalDate end);
+}
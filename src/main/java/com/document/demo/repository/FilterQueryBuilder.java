@@ -0,0 +1,81 @@
+package com.document.demo.repository;
+
+import com.document.demo.dto.request.FilterRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.regex.Pattern;
+
+import static com.document.demo.utils.VietnameseTextUtils.normalize;
+
+// Builds the /filter query from only the optional predicates the caller supplied, so the
+// planner sees plain equality/range clauses it can match against the compound indexes.
+// type is always applied, a null type matches documents without one as it always has.
+final class FilterQueryBuilder {
+    // Fields mapped into FilterResponse.DocumentFilterDTO
+    static final String[] FILTER_FIELDS = {
+            "number", "title", "agencyUnit", "status", "urgencyLevel",
+            "secretLevel", "issueDate", "receivedDate", "createdAt"
+    };
+
+    private final Criteria criteria = new Criteria();
+
+    private FilterQueryBuilder() {
+    }
+
+    static Query build(FilterRequest request, Pageable pageable) {
+        FilterQueryBuilder builder = new FilterQueryBuilder()
+                .is("type", request.getType())
+                .equal("status", request.getStatus())
+                .equal("urgencyLevel", request.getUrgencyLevel())
+                .equal("secretLevel", request.getSecretLevel())
+                .contains(request.getAgencyUnit())
+                .range("receivedDate", request.getStartDate(), request.getEndDate());
+
+        Query query = Query.query(builder.criteria).with(pageable);
+        query.fields().include(FILTER_FIELDS);
+        return query;
+    }
+
+    private FilterQueryBuilder is(String field, Object value) {
+        criteria.and(field).is(value);
+        return this;
+    }
+
+    private FilterQueryBuilder equal(String field, Object value) {
+        if (value != null) {
+            criteria.and(field).is(value);
+        }
+        return this;
+    }
+
+    // Case-insensitive substring, "Đào tạo" matches "Phòng Đào tạo". The folded agencyUnitNorm
+    // also matches without accents, the raw field covers documents not yet backfilled.
+    // Runs on the rows left by the type and other equality clauses, which use the indexes.
+    private FilterQueryBuilder contains(String value) {
+        if (value == null || value.isEmpty()) {
+            return this;
+        }
+        criteria.orOperator(
+                Criteria.where("agencyUnit").regex(Pattern.quote(value), "i"),
+                Criteria.where("agencyUnitNorm").regex(Pattern.quote(normalize(value))));
+        return this;
+    }
+
+    private FilterQueryBuilder range(String field, LocalDateTime from, LocalDateTime to) {
+        if (from == null && to == null) {
+            return this;
+        }
+
+        Criteria range = criteria.and(field);
+        if (from != null) {
+            range.gte(from);
+        }
+        if (to != null) {
+            range.lte(to);
+        }
+        return this;
+    }
+}
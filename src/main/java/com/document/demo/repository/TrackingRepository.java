@@ -1,10 +1,9 @@
 package com.document.demo.repository;
 
-import com.document.demo.models.Documents;
 import com.document.demo.models.Tracking;
-import com.document.demo.models.User;
 import com.document.demo.models.enums.TrackingActionType;
 import com.document.demo.models.enums.TrackingEntityType;
+import com.document.demo.models.projection.ActionCount;
 import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
@@ -14,18 +13,9 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface TrackingRepository extends MongoRepository<Tracking, String> {
-    List<Tracking> findByActor(User actor);
-    List<Tracking> findByEntityTypeAndEntityId(TrackingEntityType type, String entityId);
+public interface TrackingRepository extends MongoRepository<Tracking, String>, TrackingRepositoryCustom {
     List<Tracking> findByAction(TrackingActionType action);
-    List<Tracking> findByTimestampBetween(LocalDateTime start, LocalDateTime end);
     List<Tracking> findByEntityType(TrackingEntityType entityType);
-    void deleteByTimestampBefore(LocalDateTime before);
-    List<Tracking> findByActorAndTimestampBetween(
-        User actor, 
-        LocalDateTime start, 
-        LocalDateTime end
-    );
     @Query("{'entityType': ?0, 'timestamp': {$gte: ?1, $lte: ?2}}")
     List<Tracking> findByEntityTypeAndTimestampBetween(
         TrackingEntityType type,
@@ -36,5 +26,5 @@ public interface TrackingRepository extends MongoRepository<Tracking, String> {
         "{'$match': {'entityType': ?0}}",
         "{'$group': {'_id': '$action', 'count': {'$sum': 1}}}"
     })
-    List<Documents> countActionsByEntityType(TrackingEntityType entityType);
+    List<ActionCount> countActionsByEntityType(TrackingEntityType entityType);
 } 
\ No newline at end of file
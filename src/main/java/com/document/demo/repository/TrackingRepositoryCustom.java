@@ -0,0 +1,21 @@
+package com.document.demo.repository;
+
+import com.document.demo.dto.request.TrackingHistoryFilter;
+import com.document.demo.dto.response.CursorPageResponse;
+import com.document.demo.models.Tracking;
+import org.bson.Document;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface TrackingRepositoryCustom {
+    long compactLegacyRecords();
+
+    // Newest first, cursor is the nextCursor of the previous page or null for the first one
+    CursorPageResponse<Tracking> findHistory(TrackingHistoryFilter filter, String cursor, int size);
+
+    List<Tracking> findRecent(int limit);
+
+    // Raw records newest first straight from the cursor, the caller must close the stream
+    Stream<Document> streamHistory(TrackingHistoryFilter filter);
+}
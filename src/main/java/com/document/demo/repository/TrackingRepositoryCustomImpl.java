@@ -0,0 +1,173 @@
+package com.document.demo.repository;
+
+import com.document.demo.dto.request.TrackingHistoryFilter;
+import com.document.demo.dto.response.CursorPageResponse;
+import com.document.demo.exception.BadRequestException;
+import com.document.demo.models.Tracking;
+import com.document.demo.utils.AuditEventCompactor;
+import com.mongodb.DBRef;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class TrackingRepositoryCustomImpl implements TrackingRepositoryCustom {
+    private static final String COLLECTION = "tracking";
+    private static final int COMPACTION_BATCH_SIZE = 500;
+    // The _id tie-break keeps the order total when records share a timestamp
+    private static final Sort HISTORY_SORT = Sort.by(Sort.Direction.DESC, "timestamp", "_id");
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public long compactLegacyRecords() {
+        Query query = Query.query(Criteria.where("schemaVersion").exists(false));
+        query.fields().include("metadata", "changes");
+
+        long updated = 0;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION);
+        int pending = 0;
+
+        try (Stream<Document> stream = mongoTemplate.stream(query, Document.class, COLLECTION)) {
+            Iterator<Document> cursor = stream.iterator();
+            while (cursor.hasNext()) {
+                Document source = cursor.next();
+                bulk.updateOne(
+                        Query.query(Criteria.where("_id").is(source.get("_id"))),
+                        new Update()
+                                .set("metadata", compactEntries(source.get("metadata", Document.class)))
+                                .set("changes", compactEntries(source.get("changes", Document.class)))
+                                .set("schemaVersion", AuditEventCompactor.SCHEMA_VERSION));
+
+                if (++pending == COMPACTION_BATCH_SIZE) {
+                    updated += bulk.execute().getModifiedCount();
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION);
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) {
+            updated += bulk.execute().getModifiedCount();
+        }
+        return updated;
+    }
+
+    @Override
+    public CursorPageResponse<Tracking> findHistory(TrackingHistoryFilter filter, String cursor, int size) {
+        Query query = Query.query(historyCriteria(filter));
+        if (cursor != null && !cursor.isBlank()) {
+            query.addCriteria(after(cursor));
+        }
+        // One extra record tells whether another page follows
+        query.with(HISTORY_SORT).limit(size + 1);
+
+        // Actors of the page are loaded in one query
+        List<Tracking> records = BatchReferenceReader.find(mongoTemplate, query, Tracking.class);
+        boolean hasMore = records.size() > size;
+        if (hasMore) {
+            records = new ArrayList<>(records.subList(0, size));
+        }
+        String nextCursor = hasMore ? encodeCursor(records.get(records.size() - 1)) : null;
+        return new CursorPageResponse<>(records, nextCursor, hasMore);
+    }
+
+    @Override
+    public List<Tracking> findRecent(int limit) {
+        return BatchReferenceReader.find(mongoTemplate, new Query().with(HISTORY_SORT).limit(limit), Tracking.class);
+    }
+
+    @Override
+    public Stream<Document> streamHistory(TrackingHistoryFilter filter) {
+        Query query = Query.query(historyCriteria(filter)).with(HISTORY_SORT);
+        return mongoTemplate.stream(query, Document.class, COLLECTION);
+    }
+
+    private static Criteria historyCriteria(TrackingHistoryFilter filter) {
+        Criteria criteria = new Criteria();
+        if (filter.getEntityType() != null) {
+            criteria = criteria.and("entityType").is(filter.getEntityType().name());
+        }
+        if (filter.getEntityId() != null) {
+            criteria = criteria.and("entityId").is(filter.getEntityId());
+        }
+        if (filter.getActorId() != null) {
+            // Matched on the whole DBRef so the actor_timestamp_id index applies
+            criteria = criteria.and("actor").is(new DBRef("users", toObjectId(filter.getActorId())));
+        }
+        if (filter.getStart() != null || filter.getEnd() != null) {
+            criteria = criteria.and("timestamp");
+            if (filter.getStart() != null) {
+                criteria = criteria.gte(filter.getStart());
+            }
+            if (filter.getEnd() != null) {
+                criteria = criteria.lte(filter.getEnd());
+            }
+        }
+        return criteria;
+    }
+
+    // Records strictly after the cursor position in HISTORY_SORT order
+    private static Criteria after(String cursor) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+
+        int separator = decoded.indexOf('|');
+        if (separator <= 0) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        LocalDateTime timestamp;
+        try {
+            timestamp = LocalDateTime.ofInstant(
+                    Instant.ofEpochMilli(Long.parseLong(decoded.substring(0, separator))), ZoneId.systemDefault());
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        Object id = toObjectId(decoded.substring(separator + 1));
+
+        return new Criteria().orOperator(
+                Criteria.where("timestamp").lt(timestamp),
+                Criteria.where("timestamp").is(timestamp).and("_id").lt(id));
+    }
+
+    private static String encodeCursor(Tracking last) {
+        long millis = last.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        String value = millis + "|" + last.getTrackingId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Object toObjectId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    private static Map<String, Object> compactEntries(Document entries) {
+        if (entries == null) {
+            return null;
+        }
+
+        Map<String, Object> compacted = new LinkedHashMap<>();
+        entries.forEach((key, value) -> compacted.put(key, AuditEventCompactor.compactStoredValue(value)));
+        return compacted;
+    }
+}
@@ -0,0 +1,82 @@
+package com.document.demo.security;
+
+import com.document.demo.models.tracking.DeviceInfo;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+
+// Captures client details once per request so tracking never has to touch the servlet session
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class DeviceInfoFilter extends OncePerRequestFilter {
+    public static final String ATTRIBUTE = DeviceInfo.class.getName();
+    private static final String REQUEST_ID_HEADER = "X-Request-Id";
+    private static final int MAX_REQUEST_ID_LENGTH = 128;
+
+    @Override
+    protected void doFilterInternal(@NotNull HttpServletRequest request,
+                                    @NotNull HttpServletResponse response,
+                                    @NotNull FilterChain filterChain) throws ServletException, IOException {
+        String requestId = request.getHeader(REQUEST_ID_HEADER);
+        if (!StringUtils.hasText(requestId) || requestId.length() > MAX_REQUEST_ID_LENGTH) {
+            requestId = UUID.randomUUID().toString();
+        }
+
+        String ipAddress = getClientIpAddress(request);
+        String userAgent = request.getHeader("User-Agent");
+
+        request.setAttribute(ATTRIBUTE, DeviceInfo.builder()
+                .ipAddress(ipAddress)
+                .userAgent(userAgent)
+                .clientId(clientId(ipAddress, userAgent))
+                .requestId(requestId)
+                .build());
+        response.setHeader(REQUEST_ID_HEADER, requestId);
+
+        filterChain.doFilter(request, response);
+    }
+
+    // Device info of the request bound to the current thread, null outside a request
+    public static DeviceInfo current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        return (DeviceInfo) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    private static String getClientIpAddress(HttpServletRequest request) {
+        String xForwardedFor = request.getHeader("X-Forwarded-For");
+        if (StringUtils.hasText(xForwardedFor)) {
+            int comma = xForwardedFor.indexOf(',');
+            return (comma >= 0 ? xForwardedFor.substring(0, comma) : xForwardedFor).trim();
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static String clientId(String ipAddress, String userAgent) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((ipAddress + "|" + userAgent).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
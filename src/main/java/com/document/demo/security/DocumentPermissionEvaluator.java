@@ -17,7 +17,7 @@ public class DocumentPermissionEvaluator {
         try {
             Documents document = documentService.findById(documentId);
             User currentUser = userService.getCurrentUser();
-            return document.getCreateBy().getUserId().equals(currentUser.getUserId());
+            return currentUser.getUserId().equals(document.getCreatorId());
         } catch (Exception e) {
             return false;
         }
@@ -1,5 +1,6 @@
 package com.document.demo.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -24,6 +25,7 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtTokenProvider tokenProvider;
     private final UserDetailsService userService;
+    private final UserPrincipalCache principalCache;
 
     @Override
     protected void doFilterInternal(@NotNull HttpServletRequest request,
@@ -32,9 +34,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
-                UserDetails userDetails = userService.loadUserByUsername(username);
+            Claims claims = StringUtils.hasText(jwt) ? tokenProvider.getValidClaims(jwt) : null;
+
+            if (claims != null) {
+                String username = claims.getSubject();
+                UserDetails userDetails = principalCache.get(username, userService::loadUserByUsername);
                 
                 UsernamePasswordAuthenticationToken authentication = 
                     new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
@@ -8,34 +8,49 @@ import io.jsonwebtoken.security.Keys;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class JwtTokenProvider {
     private final UserService userService;
-    private final StringRedisTemplate redisTemplate;
-    
-    private static final String BLACKLIST_PREFIX = "BLACKLIST:";
-    private static final String REFRESH_BLACKLIST_PREFIX = "REFRESH_BLACKLIST:";
-    
+    private final TokenVersionService tokenVersionService;
+    private final TokenDenylistService tokenDenylistService;
+
+    private static final String USER_ID_CLAIM = "userId";
+    private static final String VERSION_CLAIM = "ver";
+
     @Value("${jwt.expiration}")
     private int jwtExpiration;
 
     @Value("${jwt.refresh-expiration}")
     private int jwtRefreshExpiration;
 
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private int verifiedCacheMaxSize;
+
+    @Value("${jwt.verified-cache.ttl-ms:60000}")
+    private long verifiedCacheTtlMillis;
+
     private final SecretKey key = Keys.secretKeyFor(SignatureAlgorithm.HS512);
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(key).build();
+
+    // Claims of recently verified tokens keyed by the token's SHA-256, so the signature is checked once per token
+    private final Map<String, VerifiedClaims> verifiedTokens = new ConcurrentHashMap<>();
 
     public String generateToken(Authentication authentication) {
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
@@ -45,7 +60,8 @@ public class JwtTokenProvider {
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
         if (userDetails instanceof User user) {
-            claims.put("userId", user.getUserId());
+            claims.put(USER_ID_CLAIM, user.getUserId());
+            claims.put(VERSION_CLAIM, tokenVersionService.storedVersion(user.getUserId()));
             claims.put("email", user.getEmail());
             claims.put("role", user.getRole().name());
         }
@@ -55,6 +71,7 @@ public class JwtTokenProvider {
 
         return Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
@@ -70,7 +87,8 @@ public class JwtTokenProvider {
     public String generateRefreshToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
         if (userDetails instanceof User user) {
-            claims.put("userId", user.getUserId());
+            claims.put(USER_ID_CLAIM, user.getUserId());
+            claims.put(VERSION_CLAIM, tokenVersionService.storedVersion(user.getUserId()));
             claims.put("email", user.getEmail());
             claims.put("role", user.getRole().name());
         }
@@ -80,6 +98,7 @@ public class JwtTokenProvider {
 
         return Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
@@ -88,32 +107,33 @@ public class JwtTokenProvider {
     }
 
     public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)  // Sử dụng key đã tạo
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return claims.getSubject();
+        return getClaims(token).getSubject();
     }
 
-    public boolean validateToken(String token, boolean isRefreshToken) {
+    // Returns the verified claims, or null when the token is revoked or invalid
+    public Claims getValidClaims(String token) {
         try {
-            // Check if token is blacklisted
-            String prefix = isRefreshToken ? REFRESH_BLACKLIST_PREFIX : BLACKLIST_PREFIX;
-            String blacklistKey = prefix + token;
-            Boolean isBlacklisted = redisTemplate.hasKey(blacklistKey);
-            if (Boolean.TRUE.equals(isBlacklisted)) {
-                log.error("Token is blacklisted");
-                return false;
+            // Validate token signature and expiration, and the denylist when the token is not cached
+            Claims claims = getClaims(token);
+
+            // Logout on any node reaches this one through pub/sub before the cache entry expires
+            if (tokenDenylistService.isRevokedLocally(claims.getId())) {
+                log.error("Token has been revoked");
+                return null;
             }
 
-            // Validate token signature and expiration
-            Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token);
-            return true;
+            // Check the token was issued after the user's last revocation
+            String userId = claims.get(USER_ID_CLAIM, String.class);
+            if (userId != null) {
+                Number version = claims.get(VERSION_CLAIM, Number.class);
+                if (!tokenVersionService.isCurrent(userId, version != null ? version.longValue() : 0)) {
+                    log.error("Token has been revoked");
+                    return null;
+                }
+            }
+            return claims;
+        } catch (RevokedTokenException ex) {
+            log.error("Token has been revoked");
         } catch (SignatureException ex) {
             log.error("Invalid JWT signature");
         } catch (MalformedJwtException ex) {
@@ -125,61 +145,95 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException ex) {
             log.error("JWT claims string is empty");
         }
-        return false;
+        return null;
     }
 
-    // Overloaded method for backward compatibility
     public boolean validateToken(String token) {
-        return validateToken(token, false);
+        return getValidClaims(token) != null;
     }
 
     public String refreshToken(String refreshToken) {
-        if (!validateToken(refreshToken, true)) {
+        Claims claims = getValidClaims(refreshToken);
+        if (claims == null) {
             throw new RuntimeException("Invalid refresh token");
         }
 
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(refreshToken)
-                .getBody();
-
         String username = claims.getSubject();
         UserDetails userDetails = userService.loadUserByUsername(username);
         return generateToken(userDetails);
     }
-    
+
+    // Logging out revokes only the presented tokens, other sessions of the user stay valid
     public void invalidateTokens(String accessToken, String refreshToken) {
+        revoke(accessToken, false);
+        revoke(refreshToken, true);
+    }
+
+    private void revoke(String token, boolean refreshToken) {
+        if (token == null) {
+            return;
+        }
         try {
-            // Blacklist access token
-            Claims accessClaims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(accessToken)
-                .getBody();
-            
-            long accessTtl = (accessClaims.getExpiration().getTime() - System.currentTimeMillis()) / 1000;
-            if (accessTtl > 0) {
-                String blacklistKey = BLACKLIST_PREFIX + accessToken;
-                redisTemplate.opsForValue().set(blacklistKey, "true", accessTtl, TimeUnit.SECONDS);
-                log.info("Access token blacklisted successfully");
+            Claims claims = getClaims(token);
+            tokenDenylistService.revoke(claims.get(USER_ID_CLAIM, String.class), claims.getId(),
+                    claims.getExpiration());
+            verifiedTokens.remove(hash(token));
+            log.info("{} invalidated successfully", refreshToken ? "Refresh token" : "Access token");
+        } catch (Exception e) {
+            log.error("Error invalidating tokens: ", e);
+        }
+    }
+
+    // Parses and verifies the token at most once while it stays in the local cache
+    private Claims getClaims(String token) {
+        if (token == null || token.isEmpty()) {
+            throw new IllegalArgumentException("JWT token is empty");
+        }
+
+        String tokenHash = hash(token);
+        long now = System.currentTimeMillis();
+
+        VerifiedClaims cached = verifiedTokens.get(tokenHash);
+        if (cached != null) {
+            if (cached.expiresAt() > now) {
+                return cached.claims();
             }
+            verifiedTokens.remove(tokenHash);
+        }
 
-            // Blacklist refresh token
-            Claims refreshClaims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(refreshToken)
-                .getBody();
-            
-            long refreshTtl = (refreshClaims.getExpiration().getTime() - System.currentTimeMillis()) / 1000;
-            if (refreshTtl > 0) {
-                String refreshBlacklistKey = REFRESH_BLACKLIST_PREFIX + refreshToken;
-                redisTemplate.opsForValue().set(refreshBlacklistKey, "true", refreshTtl, TimeUnit.SECONDS);
-                log.info("Refresh token blacklisted successfully");
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        if (tokenDenylistService.isRevoked(claims.get(USER_ID_CLAIM, String.class), claims.getId())) {
+            throw new RevokedTokenException();
+        }
+
+        if (verifiedCacheTtlMillis > 0) {
+            if (verifiedTokens.size() >= verifiedCacheMaxSize) {
+                verifiedTokens.values().removeIf(entry -> entry.expiresAt() <= now);
+                if (verifiedTokens.size() >= verifiedCacheMaxSize) {
+                    verifiedTokens.clear();
+                }
             }
-        } catch (Exception e) {
-            log.error("Error invalidating tokens: ", e);
+            long expiresAt = Math.min(claims.getExpiration().getTime(), now + verifiedCacheTtlMillis);
+            verifiedTokens.put(tokenHash, new VerifiedClaims(claims, expiresAt));
+        }
+        return claims;
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record VerifiedClaims(Claims claims, long expiresAt) {
+    }
+
+    private static class RevokedTokenException extends JwtException {
+        RevokedTokenException() {
+            super("Token has been revoked");
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,119 @@
+package com.document.demo.security;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per-token revocation used by logout. The revoked token ids ("jti" claim) of a user are kept in
+// one Redis sorted set scored by token expiry, and published so every node holds them locally for
+// the request path. A user has at most max-per-user live entries: past that the user's token
+// version is bumped instead, which ends the remaining sessions too, and the set is dropped.
+// Redis memory is bounded per user however many logouts happen.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenDenylistService implements MessageListener {
+    public static final String CHANNEL = "TOKEN_REVOKED";
+    private static final String REVOKED_PREFIX = "REVOKED_TOKENS:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final TokenVersionService tokenVersionService;
+    // Revoked token ids with the expiry of the token, in milliseconds
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    @Value("${jwt.denylist.max-per-user:20}")
+    private int maxPerUser;
+
+    public void revoke(String userId, String tokenId, Date expiration) {
+        if (userId == null || tokenId == null) {
+            // Every token this server issues carries both claims
+            log.warn("Cannot revoke a token without user id and token id");
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long expiresAt = expiration.getTime();
+        if (expiresAt <= now) {
+            return;
+        }
+
+        String key = REVOKED_PREFIX + userId;
+        ZSetOperations<String, String> revokedTokens = redisTemplate.opsForZSet();
+        revokedTokens.removeRangeByScore(key, 0, now);
+        revokedTokens.add(key, tokenId, expiresAt);
+        Long size = revokedTokens.zCard(key);
+        if (size != null && size > maxPerUser) {
+            // Every token of the user is revoked by the version, the ids are not needed anymore
+            tokenVersionService.revokeAll(userId);
+            redisTemplate.delete(key);
+            return;
+        }
+
+        // The set lives as long as the latest token it holds
+        Long ttl = redisTemplate.getExpire(key);
+        if (ttl == null || ttl < 0 || now + ttl * 1000 < expiresAt) {
+            redisTemplate.expireAt(key, expiration);
+        }
+
+        remember(tokenId, expiresAt);
+        redisTemplate.convertAndSend(CHANNEL, tokenId + ":" + expiresAt);
+    }
+
+    // In-memory lookup, cheap enough for every request
+    public boolean isRevokedLocally(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+        Long expiresAt = revoked.get(tokenId);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    // Reads Redis, so revocations this node missed are seen. Only called when a token is verified,
+    // which the verified-claims cache limits to once per token and cache period
+    public boolean isRevoked(String userId, String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+        if (isRevokedLocally(tokenId)) {
+            return true;
+        }
+        return userId != null && redisTemplate.opsForZSet().score(REVOKED_PREFIX + userId, tokenId) != null;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf(':');
+        if (separator <= 0) {
+            log.warn("Ignoring malformed token revocation message: {}", body);
+            return;
+        }
+
+        try {
+            remember(body.substring(0, separator), Long.parseLong(body.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed token revocation message: {}", body);
+        }
+    }
+
+    // Expired tokens fail verification anyway, their ids are dropped here instead of on each logout
+    @Scheduled(fixedDelayString = "${jwt.denylist.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+
+    private void remember(String tokenId, long expiresAt) {
+        revoked.put(tokenId, expiresAt);
+    }
+}
@@ -0,0 +1,88 @@
+package com.document.demo.security;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per-user token version stored in Redis. Tokens carry the version they were issued with in the
+// "ver" claim, bumping the version revokes every token of that user at once (password change,
+// deactivation, role change). Logout revokes single tokens through TokenDenylistService.
+// Each node keeps the versions locally and learns about bumps through Redis pub/sub.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenVersionService implements MessageListener {
+    public static final String CHANNEL = "TOKEN_VERSION_CHANGED";
+    private static final String VERSION_PREFIX = "TOKEN_VERSION:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Map<String, CachedVersion> versions = new ConcurrentHashMap<>();
+
+    // Upper bound on how long a node trusts its local copy if a pub/sub message is missed
+    @Value("${jwt.token-version.cache-ttl-ms:300000}")
+    private long cacheTtlMillis;
+
+    public long currentVersion(String userId) {
+        long now = System.currentTimeMillis();
+        CachedVersion cached = versions.get(userId);
+        if (cached != null && now - cached.loadedAt() < cacheTtlMillis) {
+            return cached.version();
+        }
+
+        return storedVersion(userId);
+    }
+
+    // Read from Redis, new tokens must not carry a version this node has not heard is outdated
+    public long storedVersion(String userId) {
+        String value = redisTemplate.opsForValue().get(VERSION_PREFIX + userId);
+        long version = value != null ? Long.parseLong(value) : 0;
+        versions.put(userId, new CachedVersion(version, System.currentTimeMillis()));
+        return version;
+    }
+
+    public boolean isCurrent(String userId, long tokenVersion) {
+        return tokenVersion >= currentVersion(userId);
+    }
+
+    // Invalidates every access and refresh token issued to the user so far
+    public long revokeAll(String userId) {
+        Long version = redisTemplate.opsForValue().increment(VERSION_PREFIX + userId);
+        long current = version != null ? version : 0;
+
+        versions.put(userId, new CachedVersion(current, System.currentTimeMillis()));
+        redisTemplate.convertAndSend(CHANNEL, userId + ":" + current);
+        log.info("Revoked tokens of user {} (version {})", userId, current);
+        return current;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf(':');
+        if (separator <= 0) {
+            log.warn("Ignoring malformed token version message: {}", body);
+            return;
+        }
+
+        try {
+            String userId = body.substring(0, separator);
+            long version = Long.parseLong(body.substring(separator + 1));
+            CachedVersion update = new CachedVersion(version, System.currentTimeMillis());
+            versions.merge(userId, update, (existing, incoming) ->
+                    incoming.version() >= existing.version() ? incoming : existing);
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed token version message: {}", body);
+        }
+    }
+
+    private record CachedVersion(long version, long loadedAt) {
+    }
+}
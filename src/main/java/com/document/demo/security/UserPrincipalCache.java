@@ -0,0 +1,104 @@
+package com.document.demo.security;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+// Bounded LRU of authenticated principals so the JWT filter does not read users on every request.
+// Entries expire after the TTL and are evicted by UserServiceImpl when a user changes, the eviction
+// reaches the other nodes through Redis pub/sub.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserPrincipalCache implements MessageListener {
+    public static final String CHANNEL = "USER_PRINCIPAL_EVICTED";
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${security.principal-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${security.principal-cache.ttl-ms:60000}")
+    private long ttlMillis;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxSize;
+        }
+    };
+
+    // Bumped by every eviction, a load that started before it must not be cached
+    private long generation;
+
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        if (ttlMillis <= 0) {
+            return loader.apply(username);
+        }
+
+        long now = System.currentTimeMillis();
+        long loadGeneration;
+        synchronized (entries) {
+            Entry entry = entries.get(username);
+            if (entry != null && entry.expiresAt() > now) {
+                return entry.principal();
+            }
+            loadGeneration = generation;
+        }
+
+        // Load outside the lock, a concurrent miss for the same user only costs one extra query
+        UserDetails principal = loader.apply(username);
+        synchronized (entries) {
+            if (generation == loadGeneration) {
+                entries.put(username, new Entry(principal, now + ttlMillis));
+            }
+        }
+        return principal;
+    }
+
+    // Evicts on this node and publishes the username so every other node drops it too
+    public void evict(String username) {
+        if (username == null) {
+            return;
+        }
+        evictLocal(username);
+        try {
+            redisTemplate.convertAndSend(CHANNEL, username);
+        } catch (Exception e) {
+            // Other nodes still drop the entry once its TTL runs out
+            log.warn("Could not publish principal eviction of {}", username, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        evictLocal(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    private void evictLocal(String username) {
+        synchronized (entries) {
+            entries.remove(username);
+            generation++;
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            generation++;
+        }
+    }
+
+    private record Entry(UserDetails principal, long expiresAt) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.document.demo.service;
+
+import com.document.demo.dto.response.AttachmentCacheStats;
+import com.document.demo.dto.response.S3ObjectInfo;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+public interface AttachmentCacheService {
+    boolean isCacheable(S3ObjectInfo info);
+
+    // Cached copy of the file with the metadata it was read with, without asking S3
+    Optional<CachedAttachment> find(String fileUrl);
+
+    // Local copy of this version of the object, read from S3 on a miss
+    Path get(String fileUrl, S3ObjectInfo info) throws IOException;
+
+    // Starts reading this version into the cache in the background unless it is there or loading
+    void prefetch(String fileUrl, S3ObjectInfo info);
+
+    // Drops every cached version of the file, called when an attachment is replaced or deleted
+    void invalidate(String fileUrl);
+
+    AttachmentCacheStats getStats();
+
+    record CachedAttachment(S3ObjectInfo info, Path path) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.document.demo.service;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+public interface AttachmentService {
+    // Streams a stored file, honouring the Range, If-Range and If-None-Match request headers
+    ResponseEntity<StreamingResponseBody> download(String fileUrl, String fileName,
+                                                   String range, String ifRange, String ifNoneMatch);
+}
@@ -0,0 +1,5 @@
+package com.document.demo.service;
+
+public interface CounterService {
+    long getCount(Class<?> entityType);
+}
@@ -4,6 +4,7 @@ import com.document.demo.dto.request.DocumentRequest;
 import com.document.demo.dto.request.FilterRequest;
 import com.document.demo.dto.request.UpdateDocumentRequest;
 import com.document.demo.models.Documents;
+import com.document.demo.models.User;
 import com.document.demo.models.enums.DocumentStatus;
 import com.document.demo.models.enums.DocumentType;
 import com.document.demo.models.enums.SecretLevel;
@@ -14,6 +15,7 @@ import org.springframework.data.domain.Pageable;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -34,6 +36,10 @@ public interface DocumentService {
     List<Documents> findRecentDocumentsByType(DocumentType type, int limit);
     List<Documents> findRecentDocuments(int limit);
 
+    // Summary views only load the fields shown in document lists
+    List<Documents> findRecentSummaries(DocumentType type, int limit);
+    Page<Documents> findSummaries(DocumentType type, DocumentStatus status, Pageable pageable);
+
     Page<Documents> findByType(DocumentType type, Pageable pageable);
     Page<Documents> findAll(Pageable pageable);
 
@@ -43,10 +49,26 @@ public interface DocumentService {
     Page<Documents> searchDocuments(String keyword, DocumentType type, LocalDateTime startDate,
                                     LocalDateTime endDate, Pageable pageable);
 
+    Page<Documents> searchDocumentSummaries(String keyword, DocumentType type, LocalDateTime startDate,
+                                            LocalDateTime endDate, Pageable pageable);
+
+    Page<Documents> fullTextSearch(String keyword, DocumentType type, Pageable pageable);
+
     Map<DocumentStatus, Long> getStatusCountsByType(DocumentType type);
 
     List<String> suggestAgencyUnits(String keyword, int limit);
 
+    long backfillSearchFields();
+
+    long migrateCreatorReferences();
+
+    // Creators keyed by documentId, loaded with a single users query
+    Map<String, User> resolveCreators(Collection<Documents> documents);
+    User resolveCreator(Documents document);
+
+    // Points the document at an object uploaded through a pre-signed URL
+    Documents confirmAttachmentUpload(String id, String key);
+
     Page<Documents> filterDocuments(
             FilterRequest request,
             Pageable pageable
@@ -0,0 +1,18 @@
+package com.document.demo.service;
+
+import com.document.demo.dto.response.DocumentStatisticRangeResponse;
+import com.document.demo.models.Documents;
+import com.document.demo.models.enums.DocumentType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface DocumentStatsService {
+    void recordCreated(Documents document);
+    void recordDeleted(Documents document);
+    void recordTypeChanged(LocalDateTime createdAt, DocumentType oldType, DocumentType newType);
+
+    int rebuild();
+
+    List<DocumentStatisticRangeResponse> getStatistics(int year, String granularity);
+}
@@ -3,6 +3,7 @@ package com.document.demo.service;
 import com.document.demo.dto.response.ReportDetailResponse;
 import com.document.demo.models.enums.DocumentStatus;
 import com.document.demo.models.enums.DocumentType;
+import com.document.demo.models.projection.DocumentReportSnapshot;
 
 import java.util.List;
 
@@ -20,4 +21,5 @@ public interface ReportService {
     long countOutgoingDocumentsByWeek(int year, int month, int weekNumber);
     int getDocumentByTypeAndStatus(DocumentType documentType, DocumentStatus documentStatus);
     List<ReportDetailResponse> getReportDetail();
+    DocumentReportSnapshot getReportSnapshot();
 }
@@ -1,9 +1,22 @@
 package com.document.demo.service;
 
+import com.document.demo.dto.response.PresignedUrlResponse;
+import com.document.demo.dto.response.S3ObjectInfo;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
+
 public interface S3Service {
     String uploadFile(MultipartFile file);
     void deleteFile(String fileUrl);
-    byte[] downloadFile(String fileUrl);
+    S3ObjectInfo head(String fileUrl);
+    // Bytes start to end inclusive, read straight from the S3 response. With an eTag the read
+    // fails instead of mixing in bytes of an object that was replaced after head()
+    InputStream openStream(String fileUrl, String eTag, long start, long end);
+
+    // Pre-signed transfers, the client moves the bytes to and from S3 directly
+    PresignedUrlResponse presignUpload(String documentId, String fileName, String contentType);
+    PresignedUrlResponse presignDownload(String fileUrl, String fileName);
+    // Checks that the key was issued for the document and the object arrived, returns its file URL
+    String confirmUpload(String documentId, String key);
 }
@@ -0,0 +1,18 @@
+package com.document.demo.service;
+
+import com.document.demo.models.enums.TrackingEntityType;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+public interface TrackingRetentionService {
+    LocalDateTime retainUntil(TrackingEntityType entityType, LocalDateTime timestamp);
+
+    // Recomputes retainUntil from the configured retention, only for records without one if onlyMissing
+    long applyRetention(boolean onlyMissing);
+
+    // Writes records whose retention ends soon to a gzip NDJSON file and lets them expire,
+    // returns null when there was nothing to archive or another node is archiving
+    Path archiveExpiring() throws IOException;
+}
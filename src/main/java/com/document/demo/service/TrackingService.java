@@ -1,25 +1,33 @@
 package com.document.demo.service;
 
+import com.document.demo.dto.request.TrackingHistoryFilter;
 import com.document.demo.dto.request.TrackingRequest;
+import com.document.demo.dto.response.CursorPageResponse;
 import com.document.demo.models.Tracking;
-import com.document.demo.models.User;
 import com.document.demo.models.enums.TrackingActionType;
 import com.document.demo.models.enums.TrackingEntityType;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
 public interface TrackingService {
+    // Queues the record for writing, the returned tracking has no id yet
     Tracking track(TrackingRequest request);
 
-    List<Tracking> getEntityHistory(TrackingEntityType type, String entityId);
-    List<Tracking> getUserActivity(User user);
-    List<Tracking> getActivityBetween(LocalDateTime start, LocalDateTime end);
+    CursorPageResponse<Tracking> getEntityHistory(TrackingEntityType type, String entityId, String cursor, int size);
+    CursorPageResponse<Tracking> getUserActivity(String userId, LocalDateTime start, LocalDateTime end,
+                                                 String cursor, int size);
+    CursorPageResponse<Tracking> getActivityBetween(LocalDateTime start, LocalDateTime end, String cursor, int size);
+
+    // Writes the matching records as NDJSON, newest first, without holding them in memory
+    void exportHistory(TrackingHistoryFilter filter, OutputStream out) throws IOException;
     List<Tracking> getRecentActivity(int limit);
 
     Map<TrackingActionType, Long> getActionStatistics(TrackingEntityType entityType);
 
-    void deleteOldRecords(LocalDateTime before);
-    void cleanupOldRecords();
+    // Rewrites records stored before the compact audit format
+    long compactLegacyRecords();
 } 
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.document.demo.service;
+
+import com.document.demo.dto.response.TrackingStatisticsResponse;
+import com.document.demo.models.Tracking;
+import com.document.demo.models.enums.TrackingEntityType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface TrackingStatsService {
+    // Adds a written batch of tracking records to the hourly rollup
+    void recordBatch(List<Tracking> batch);
+
+    int rebuild();
+
+    TrackingStatisticsResponse getSummary(LocalDateTime start, LocalDateTime end, TrackingEntityType entityType);
+}
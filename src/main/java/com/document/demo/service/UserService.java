@@ -29,6 +29,9 @@ public interface UserService extends UserDetailsService {
 
     User getUserById(String id);
 
+    // In the order of ids, one query for all of them
+    List<User> getUsersByIds(List<String> ids);
+
     User getCurrentUser();
 
     Page<User> findAll(int page, int size, String search, UserRole role, UserStatus status);
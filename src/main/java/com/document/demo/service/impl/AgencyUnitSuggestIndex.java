@@ -0,0 +1,266 @@
+package com.document.demo.service.impl;
+
+import com.document.demo.models.projection.AgencyUnitCount;
+import com.document.demo.repository.DocumentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.document.demo.utils.VietnameseTextUtils.normalize;
+
+// Prefix trie over the distinct agencyUnit values, ranked by how many documents use them.
+// Every word of a value is indexed, so "dao" matches "Phòng Đào tạo". Each node keeps the
+// TOP_K best values of its subtree, so a suggestion never sorts the whole vocabulary.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AgencyUnitSuggestIndex {
+    static final int TOP_K = 20;
+
+    private final DocumentRepository documentRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Trie trie = new Trie();
+    private volatile boolean ready = false;
+
+    private static class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        // Values whose indexed word ends at this node
+        private final Set<String> terminals = new HashSet<>(1);
+        // Best values of the subtree, most used first
+        private List<String> top = List.of();
+    }
+
+    private static class Trie {
+        private final Node root = new Node();
+        private final Map<String, Long> frequencies = new HashMap<>();
+        private final Comparator<String> ranking = Comparator.<String>comparingLong(frequencies::get).reversed()
+                .thenComparing(Comparator.naturalOrder());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<AgencyUnitCount> counts = documentRepository.countByAgencyUnit();
+
+        // Built aside and swapped in, suggestions keep using the old trie meanwhile
+        Trie built = new Trie();
+        for (AgencyUnitCount count : counts) {
+            if (count.getAgencyUnit() != null && !count.getAgencyUnit().isBlank()) {
+                built.frequencies.put(count.getAgencyUnit(), count.getCount());
+                insert(built, count.getAgencyUnit(), false);
+            }
+        }
+        refreshSubtree(built, built.root);
+
+        lock.writeLock().lock();
+        try {
+            trie = built;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Agency unit suggest index built with {} values", built.frequencies.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void add(String agencyUnit) {
+        if (agencyUnit == null || agencyUnit.isBlank()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (trie.frequencies.merge(agencyUnit, 1L, Long::sum) == 1L) {
+                insert(trie, agencyUnit, true);
+            } else {
+                refreshPaths(trie, agencyUnit);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String agencyUnit) {
+        if (agencyUnit == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!trie.frequencies.containsKey(agencyUnit)) {
+                return;
+            }
+            Long remaining = trie.frequencies.computeIfPresent(agencyUnit, (key, count) -> count > 1 ? count - 1 : null);
+            if (remaining == null) {
+                delete(trie, agencyUnit);
+            } else {
+                refreshPaths(trie, agencyUnit);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<String> suggest(String keyword, int limit) {
+        String prefix = keyword != null ? normalize(keyword) : "";
+
+        lock.readLock().lock();
+        try {
+            Node node = trie.root;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.children.get(prefix.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+            if (limit <= TOP_K) {
+                return node.top.stream().limit(limit).toList();
+            }
+            return collect(trie, node, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Only for limits above TOP_K: walks the subtree keeping the best `limit` values in a heap
+    private static List<String> collect(Trie trie, Node start, int limit) {
+        PriorityQueue<String> best = new PriorityQueue<>(trie.ranking.reversed());
+        Set<String> seen = new HashSet<>();
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(start);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            for (String value : node.terminals) {
+                if (seen.add(value)) {
+                    best.offer(value);
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            }
+            node.children.values().forEach(pending::push);
+        }
+
+        List<String> result = new ArrayList<>(best);
+        result.sort(trie.ranking);
+        return result;
+    }
+
+    private static void insert(Trie trie, String value, boolean refresh) {
+        String normalized = normalize(value);
+        for (int start : wordStarts(normalized)) {
+            List<Node> path = new ArrayList<>();
+            Node node = trie.root;
+            path.add(node);
+            for (int i = start; i < normalized.length(); i++) {
+                node = node.children.computeIfAbsent(normalized.charAt(i), c -> new Node());
+                path.add(node);
+            }
+            node.terminals.add(value);
+            if (refresh) {
+                refreshPath(trie, path);
+            }
+        }
+    }
+
+    private static void delete(Trie trie, String value) {
+        String normalized = normalize(value);
+        for (int start : wordStarts(normalized)) {
+            List<Node> path = path(trie, normalized, start);
+            if (path == null) {
+                continue;
+            }
+            path.get(path.size() - 1).terminals.remove(value);
+
+            // Drops the nodes that no longer lead to any value, then re-ranks what is left
+            for (int i = path.size() - 1; i > 0; i--) {
+                Node node = path.get(i);
+                if (!node.terminals.isEmpty() || !node.children.isEmpty()) {
+                    break;
+                }
+                path.get(i - 1).children.remove(normalized.charAt(start + i - 1));
+                path.remove(i);
+            }
+            refreshPath(trie, path);
+        }
+    }
+
+    // A frequency changed, every node on the value's paths may rank it differently
+    private static void refreshPaths(Trie trie, String value) {
+        String normalized = normalize(value);
+        for (int start : wordStarts(normalized)) {
+            List<Node> path = path(trie, normalized, start);
+            if (path != null) {
+                refreshPath(trie, path);
+            }
+        }
+    }
+
+    private static List<Node> path(Trie trie, String normalized, int start) {
+        List<Node> path = new ArrayList<>();
+        Node node = trie.root;
+        path.add(node);
+        for (int i = start; i < normalized.length(); i++) {
+            node = node.children.get(normalized.charAt(i));
+            if (node == null) {
+                return null;
+            }
+            path.add(node);
+        }
+        return path;
+    }
+
+    private static void refreshPath(Trie trie, List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            refresh(trie, path.get(i));
+        }
+    }
+
+    private static void refreshSubtree(Trie trie, Node node) {
+        for (Node child : node.children.values()) {
+            refreshSubtree(trie, child);
+        }
+        refresh(trie, node);
+    }
+
+    // The best values of a subtree are among its own terminals and the best values of each child
+    private static void refresh(Trie trie, Node node) {
+        Set<String> candidates = new LinkedHashSet<>(node.terminals);
+        for (Node child : node.children.values()) {
+            candidates.addAll(child.top);
+        }
+        // A removed value can still sit in a sibling's list until its own paths are refreshed
+        candidates.removeIf(value -> !trie.frequencies.containsKey(value));
+        node.top = candidates.stream()
+                .sorted(trie.ranking)
+                .limit(TOP_K)
+                .toList();
+    }
+
+    private static List<Integer> wordStarts(String normalized) {
+        List<Integer> starts = new ArrayList<>();
+        for (int i = 0; i < normalized.length(); i++) {
+            if (normalized.charAt(i) != ' ' && (i == 0 || normalized.charAt(i - 1) == ' ')) {
+                starts.add(i);
+            }
+        }
+        return starts;
+    }
+}
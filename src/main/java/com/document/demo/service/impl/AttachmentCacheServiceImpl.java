@@ -0,0 +1,354 @@
+package com.document.demo.service.impl;
+
+import com.document.demo.dto.response.AttachmentCacheStats;
+import com.document.demo.dto.response.S3ObjectInfo;
+import com.document.demo.exception.FileStorageException;
+import com.document.demo.service.AttachmentCacheService;
+import com.document.demo.service.S3Service;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Read-through disk cache for attachments. Entries are keyed by file URL and ETag, so a changed
+// object is never served from an older copy. Attachment URLs name one upload and replacing an
+// attachment goes through invalidate(), so find() serves the cached version by URL alone.
+// The least recently used files are evicted once the total size passes attachment.cache.max-size.
+// The index lives in memory, cache files left from an earlier run are removed on startup.
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class AttachmentCacheServiceImpl implements AttachmentCacheService {
+    // Names of the files this cache writes: SHA-256 entry keys and temp files of a fill
+    private static final Pattern ENTRY_NAME = Pattern.compile("[0-9a-f]{64}");
+    private static final String TEMP_PREFIX = "fill-";
+
+    private final S3Service s3Service;
+
+    @Value("${attachment.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${attachment.cache.dir:./cache/attachments}")
+    private String cacheDir;
+
+    @Value("${attachment.cache.max-size:2147483648}")
+    private long maxSize;
+
+    @Value("${attachment.cache.max-file-size:104857600}")
+    private long maxFileSize;
+
+    @Value("${attachment.cache.fill-threads:2}")
+    private int fillThreads;
+
+    private Path directory;
+    // Background fills for ranged reads, rejected when the queue is full
+    private ThreadPoolExecutor fillExecutor;
+
+    // Access ordered, the eldest entry is the least recently used one. Guarded by this.
+    private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // File URL to the entry key of its newest cached version. Guarded by this.
+    private final Map<String, String> urlKeys = new HashMap<>();
+    private long currentSize;
+    // Bumped by invalidate(), a fill that started before is not added. Guarded by this.
+    private long generation;
+
+    // One S3 read per object version, concurrent misses wait for it
+    private final Map<String, CompletableFuture<Path>> loading = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong bypassed = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            directory = Paths.get(cacheDir).toAbsolutePath().normalize();
+            Files.createDirectories(directory);
+            // Only files this cache wrote, the directory may be shared or misconfigured
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Iterator<Path> it = files.iterator(); it.hasNext(); ) {
+                    Path file = it.next();
+                    String name = file.getFileName().toString();
+                    if (Files.isRegularFile(file)
+                            && (name.startsWith(TEMP_PREFIX) || ENTRY_NAME.matcher(name).matches())) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            }
+            log.info("Attachment cache initialized at: {}", directory);
+        } catch (IOException e) {
+            throw new FileStorageException("Could not create the attachment cache directory.", e);
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        fillExecutor = new ThreadPoolExecutor(fillThreads, fillThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(fillThreads * 16), runnable -> {
+                    Thread thread = new Thread(runnable, "attachment-cache-fill-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        fillExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (fillExecutor != null) {
+            fillExecutor.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isCacheable(S3ObjectInfo info) {
+        if (!enabled || info.getContentLength() <= 0) {
+            return false;
+        }
+        if (info.getContentLength() > maxFileSize) {
+            bypassed.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized Optional<CachedAttachment> find(String fileUrl) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String entryKey = urlKeys.get(fileUrl);
+        CacheEntry entry = entryKey != null ? entries.get(entryKey) : null;
+        if (entry == null) {
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+        return Optional.of(new CachedAttachment(entry.info(), entry.path()));
+    }
+
+    @Override
+    public Path get(String fileUrl, S3ObjectInfo info) throws IOException {
+        String entryKey = entryKey(fileUrl, info.getETag());
+        synchronized (this) {
+            CacheEntry entry = entries.get(entryKey);
+            if (entry != null) {
+                hits.incrementAndGet();
+                return entry.path();
+            }
+        }
+        misses.incrementAndGet();
+        return loadOnce(fileUrl, info, entryKey);
+    }
+
+    @Override
+    public void prefetch(String fileUrl, S3ObjectInfo info) {
+        if (!enabled) {
+            return;
+        }
+        String entryKey = entryKey(fileUrl, info.getETag());
+        synchronized (this) {
+            if (entries.containsKey(entryKey)) {
+                return;
+            }
+        }
+        misses.incrementAndGet();
+
+        // Registered before it is queued, so repeated ranged reads start one fill
+        CompletableFuture<Path> load = new CompletableFuture<>();
+        if (loading.putIfAbsent(entryKey, load) != null) {
+            return;
+        }
+        try {
+            fillExecutor.execute(() -> {
+                try {
+                    runFill(load, fileUrl, info, entryKey);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Background fill of {} failed: {}", info.getKey(), e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Fill queue is full, a later miss tries again
+            loading.remove(entryKey, load);
+            load.completeExceptionally(e);
+        }
+    }
+
+    // Fills on the calling thread, or waits for the fill that is already running
+    private Path loadOnce(String fileUrl, S3ObjectInfo info, String entryKey) throws IOException {
+        CompletableFuture<Path> load = new CompletableFuture<>();
+        CompletableFuture<Path> existing = loading.putIfAbsent(entryKey, load);
+        if (existing != null) {
+            return await(existing);
+        }
+        return runFill(load, fileUrl, info, entryKey);
+    }
+
+    private Path runFill(CompletableFuture<Path> load, String fileUrl, S3ObjectInfo info, String entryKey)
+            throws IOException {
+        try {
+            Path path = fill(fileUrl, info, entryKey);
+            load.complete(path);
+            return path;
+        } catch (IOException | RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(entryKey, load);
+        }
+    }
+
+    @Override
+    public synchronized void invalidate(String fileUrl) {
+        if (fileUrl == null) {
+            return;
+        }
+        // Fills still running may hold the replaced object, none of them is added.
+        // Other files of those fills are read from S3 again on their next miss.
+        generation++;
+        entries.values().removeIf(entry -> {
+            if (!entry.fileUrl().equals(fileUrl)) {
+                return false;
+            }
+            delete(entry);
+            return true;
+        });
+    }
+
+    @Override
+    public synchronized AttachmentCacheStats getStats() {
+        return AttachmentCacheStats.builder()
+                .enabled(enabled)
+                .hits(hits.get())
+                .misses(misses.get())
+                .evictions(evictions.get())
+                .bypassed(bypassed.get())
+                .entries(entries.size())
+                .sizeBytes(currentSize)
+                .maxSizeBytes(maxSize)
+                .build();
+    }
+
+    private Path fill(String fileUrl, S3ObjectInfo info, String entryKey) throws IOException {
+        long startGeneration;
+        synchronized (this) {
+            startGeneration = generation;
+        }
+
+        // Written under a temp name and moved into place, a partial file is never visible
+        Path temp = Files.createTempFile(directory, TEMP_PREFIX, ".tmp");
+        try (InputStream input = s3Service.openStream(fileUrl, info.getETag(), 0, info.getContentLength() - 1)) {
+            Files.copy(input, temp, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        Path target = directory.resolve(entryKey);
+        synchronized (this) {
+            if (generation != startGeneration) {
+                Files.deleteIfExists(temp);
+                throw new IOException("Attachment cache was invalidated during the fill of " + info.getKey());
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+
+            CacheEntry previous = entries.put(entryKey, new CacheEntry(fileUrl, info, target));
+            if (previous != null) {
+                currentSize -= previous.size();
+            }
+            urlKeys.put(fileUrl, entryKey);
+            currentSize += info.getContentLength();
+            evict(entryKey);
+        }
+        return target;
+    }
+
+    // Called with the lock held, the entry that was just added is kept
+    private void evict(String keep) {
+        Iterator<Map.Entry<String, CacheEntry>> it = entries.entrySet().iterator();
+        while (currentSize > maxSize && it.hasNext()) {
+            Map.Entry<String, CacheEntry> eldest = it.next();
+            if (eldest.getKey().equals(keep)) {
+                continue;
+            }
+            it.remove();
+            delete(eldest.getValue());
+            evictions.incrementAndGet();
+        }
+    }
+
+    // Called with the lock held. Readers that already opened the file keep reading it.
+    private void delete(CacheEntry entry) {
+        currentSize -= entry.size();
+        urlKeys.remove(entry.fileUrl(), entry.path().getFileName().toString());
+        try {
+            Files.deleteIfExists(entry.path());
+        } catch (IOException e) {
+            log.warn("Could not delete cached attachment {}: {}", entry.path(), e.getMessage());
+        }
+    }
+
+    private static Path await(CompletableFuture<Path> load) throws IOException {
+        try {
+            return load.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the attachment cache", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Attachment cache fill failed", e.getCause());
+        }
+    }
+
+    private static String entryKey(String fileUrl, String eTag) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((fileUrl + "|" + eTag).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record CacheEntry(String fileUrl, S3ObjectInfo info, Path path) {
+        long size() {
+            return info.getContentLength();
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.document.demo.service.impl;
+
+import com.document.demo.dto.response.S3ObjectInfo;
+import com.document.demo.service.AttachmentCacheService;
+import com.document.demo.service.AttachmentCacheService.CachedAttachment;
+import com.document.demo.service.AttachmentService;
+import com.document.demo.service.S3Service;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import software.amazon.awssdk.http.Abortable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class AttachmentServiceImpl implements AttachmentService {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final S3Service s3Service;
+    private final AttachmentCacheService attachmentCacheService;
+
+    @Override
+    public ResponseEntity<StreamingResponseBody> download(String fileUrl, String fileName,
+                                                          String range, String ifRange, String ifNoneMatch) {
+        // A cached attachment is answered without a HEAD request to S3
+        CachedAttachment cached = attachmentCacheService.find(fileUrl).orElse(null);
+        S3ObjectInfo info = cached != null ? cached.info() : s3Service.head(fileUrl);
+        String eTag = quote(info.getETag());
+
+        HttpHeaders headers = new HttpHeaders();
+        if (eTag != null) {
+            headers.setETag(eTag);
+        }
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (info.getLastModified() != null) {
+            headers.setLastModified(info.getLastModified());
+        }
+
+        if (matches(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+
+        headers.setContentType(info.getContentType() != null
+                ? MediaType.parseMediaType(info.getContentType())
+                : MediaType.APPLICATION_OCTET_STREAM);
+        headers.setContentDisposition(ContentDisposition.inline()
+                .filename(fileName, StandardCharsets.UTF_8)
+                .build());
+
+        long size = info.getContentLength();
+        long start = 0;
+        long end = size - 1;
+        HttpStatus status = HttpStatus.OK;
+
+        // A stale If-Range means the client's partial copy is outdated, so the whole file is sent
+        boolean rangeApplies = range != null && (ifRange == null || ifRange.equals(eTag));
+        if (rangeApplies) {
+            long[] bounds = parseRange(range, size);
+            if (bounds == null) {
+                headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).headers(headers).build();
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                status = HttpStatus.PARTIAL_CONTENT;
+                headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+        }
+        headers.setContentLength(end - start + 1);
+
+        if (size == 0) {
+            return ResponseEntity.status(status).headers(headers).body(out -> { });
+        }
+
+        long from = start;
+        long to = end;
+        boolean partial = end - start + 1 < size;
+        boolean cacheable = cached == null && attachmentCacheService.isCacheable(info);
+        StreamingResponseBody body = out -> {
+            if (cached != null && transfer(cached.path(), info, from, to, out)) {
+                return;
+            }
+            if (cacheable) {
+                // A partial read (PDF viewer) should not wait for the whole file, it is read from
+                // S3 while the cache is filled in the background
+                if (partial) {
+                    attachmentCacheService.prefetch(fileUrl, info);
+                } else if (serveFromCache(fileUrl, info, from, to, out)) {
+                    return;
+                }
+            }
+            try (InputStream input = s3Service.openStream(fileUrl, info.getETag(), from, to)) {
+                try {
+                    copy(input, out);
+                } catch (IOException e) {
+                    // The client went away, drop the S3 connection instead of draining the rest
+                    if (input instanceof Abortable abortable) {
+                        abortable.abort();
+                    }
+                    throw e;
+                }
+            }
+        };
+        return ResponseEntity.status(status).headers(headers).body(body);
+    }
+
+    // False when the cache can't provide the file, the caller then reads from S3 instead
+    private boolean serveFromCache(String fileUrl, S3ObjectInfo info, long start, long end, OutputStream out)
+            throws IOException {
+        Path cached;
+        try {
+            cached = attachmentCacheService.get(fileUrl, info);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Attachment cache unavailable for {}: {}", info.getKey(), e.getMessage());
+            return false;
+        }
+        return transfer(cached, info, start, end, out);
+    }
+
+    // False when the file is gone, e.g. evicted since it was looked up
+    private boolean transfer(Path cached, S3ObjectInfo info, long start, long end, OutputStream out)
+            throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(cached, StandardOpenOption.READ);
+        } catch (IOException e) {
+            log.warn("Cached attachment {} could not be opened: {}", info.getKey(), e.getMessage());
+            return false;
+        }
+
+        try (channel) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            long remaining = end - start + 1;
+            while (remaining > 0) {
+                long written = channel.transferTo(position, remaining, target);
+                if (written <= 0) {
+                    break;
+                }
+                position += written;
+                remaining -= written;
+            }
+            out.flush();
+        }
+        return true;
+    }
+
+    // Returns {start, end} for a single satisfiable range, an empty array when the header is
+    // ignored (multiple ranges or another unit) and null when the range cannot be satisfied
+    static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return new long[0];
+        }
+
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // bytes=-N is the last N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return null;
+                }
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            }
+            if (start < 0 || start >= size || end < start) {
+                return null;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+                .anyMatch(tag -> tag.equals("*") || tag.equals(eTag));
+    }
+
+    private static String quote(String eTag) {
+        if (eTag == null) {
+            return null;
+        }
+        return eTag.startsWith("\"") ? eTag : "\"" + eTag + "\"";
+    }
+
+    private static void copy(InputStream input, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        out.flush();
+    }
+}
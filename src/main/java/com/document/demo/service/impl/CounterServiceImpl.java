@@ -0,0 +1,19 @@
+package com.document.demo.service.impl;
+
+import com.document.demo.service.CounterService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+// Collection sizes from estimatedDocumentCount, which reads collection metadata instead of
+// scanning. It is already O(1), so nothing is cached that could drift from the real count.
+@Service
+@RequiredArgsConstructor
+public class CounterServiceImpl implements CounterService {
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public long getCount(Class<?> entityType) {
+        return mongoTemplate.estimatedCount(entityType);
+    }
+}
@@ -13,6 +13,7 @@ import com.document.demo.models.enums.UserRole;
 import com.document.demo.models.tracking.ChangeLog;
 import com.document.demo.repository.DepartmentRepository;
 import com.document.demo.repository.UserRepository;
+import com.document.demo.security.UserPrincipalCache;
 import com.document.demo.service.DepartmentService;
 import com.document.demo.service.TrackingService;
 import com.document.demo.service.UserService;
@@ -35,6 +36,7 @@ public class DepartmentServiceImpl implements DepartmentService {
     private final TrackingService trackingService;
     private final UserService userService;
     private final UserRepository userRepository;
+    private final UserPrincipalCache principalCache;
 
     @Override
     @Transactional
@@ -147,6 +149,7 @@ public class DepartmentServiceImpl implements DepartmentService {
         user.setPosition(request.getPosition());
         user.setRole(request.getRole());
         userRepository.save(user);
+        principalCache.evict(user.getUsername());
 
         // Track user addition
         trackingService.track(TrackingRequest.builder()
@@ -181,6 +184,7 @@ public class DepartmentServiceImpl implements DepartmentService {
         user.setPosition(null);
         user.setRole(UserRole.USER);
         userRepository.save(user);
+        principalCache.evict(user.getUsername());
 
         // Track user removal
         trackingService.track(TrackingRequest.builder()
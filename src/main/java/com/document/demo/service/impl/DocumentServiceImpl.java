@@ -10,16 +10,18 @@ import com.document.demo.exception.ResourceNotFoundException;
 import com.document.demo.models.Documents;
 import com.document.demo.models.User;
 import com.document.demo.models.enums.*;
+import com.document.demo.models.reference.UserReference;
 import com.document.demo.models.tracking.ChangeLog;
 import com.document.demo.repository.DocumentRepository;
+import com.document.demo.service.AttachmentCacheService;
 import com.document.demo.service.DocumentService;
+import com.document.demo.service.DocumentStatsService;
 import com.document.demo.service.S3Service;
 import com.document.demo.service.TrackingService;
 import com.document.demo.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -27,12 +29,16 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.EnumMap;
+import java.util.regex.Pattern;
 
 import static com.document.demo.utils.UpdateFieldUtils.updateField;
+import static com.document.demo.utils.VietnameseTextUtils.normalize;
+import static com.document.demo.utils.VietnameseTextUtils.tokenize;
 
 @Service
 @Slf4j
@@ -41,7 +47,11 @@ public class DocumentServiceImpl implements DocumentService {
     private final DocumentRepository documentRepository;
     private final UserService userService;
     private final S3Service s3Service;
+    private final AttachmentCacheService attachmentCacheService;
     private final TrackingService trackingService;
+    private final AgencyUnitSuggestIndex agencyUnitSuggestIndex;
+    private final DocumentStatsService documentStatsService;
+    private final ReferenceResolver referenceResolver;
 
     @Override
     @Transactional
@@ -50,6 +60,7 @@ public class DocumentServiceImpl implements DocumentService {
             throw new ResourceAlreadyExistsException("Document number already exists");
         }
 
+        User creator = userService.getUserById(document.getUserId());
         Documents documents = Documents.builder()
                 .number(document.getNumber())
                 .title(document.getTitle())
@@ -65,7 +76,8 @@ public class DocumentServiceImpl implements DocumentService {
                 .logNote(document.getLogNote())
                 .createdAt(LocalDateTime.now())
                 .status(document.getStatus())
-                .createBy(userService.getUserById(document.getUserId()))
+                .createBy(creator)
+                .creator(UserReference.from(creator))
                 .build();
 
         if (document.getFile() != null && !document.getFile().isEmpty()) {
@@ -73,7 +85,10 @@ public class DocumentServiceImpl implements DocumentService {
             documents.setAttachment(fileName);
         }
 
+        applySearchFields(documents);
         Documents savedDocument = documentRepository.save(documents);
+        agencyUnitSuggestIndex.add(savedDocument.getAgencyUnit());
+        documentStatsService.recordCreated(savedDocument);
 
         // Track document creation
         trackingService.track(TrackingRequest.builder()
@@ -82,7 +97,9 @@ public class DocumentServiceImpl implements DocumentService {
             .entityId(savedDocument.getDocumentId())
             .action(TrackingActionType.CREATE)
             .metadata(Map.of(
-                "document", savedDocument))
+                "id", savedDocument.getDocumentId(),
+                "number", savedDocument.getNumber(),
+                "title", savedDocument.getTitle()))
             .build());
 
         return savedDocument;
@@ -99,6 +116,8 @@ public class DocumentServiceImpl implements DocumentService {
         }
 
         Map<String, ChangeLog> changes = new HashMap<>();
+        String previousAgencyUnit = existingDocument.getAgencyUnit();
+        DocumentType previousType = existingDocument.getType();
         
         // Using UpdateFieldUtils pattern seen in other services
         updateField(changes, "number", existingDocument.getNumber(), document.getNumber(), existingDocument::setNumber);
@@ -122,7 +141,15 @@ public class DocumentServiceImpl implements DocumentService {
             handleAttachmentUpdate(existingDocument, document.getFile());
         }
 
+        applySearchFields(existingDocument);
         Documents updatedDocument = documentRepository.save(existingDocument);
+        if (changes.containsKey("agencyUnit")) {
+            agencyUnitSuggestIndex.remove(previousAgencyUnit);
+            agencyUnitSuggestIndex.add(updatedDocument.getAgencyUnit());
+        }
+        if (changes.containsKey("type")) {
+            documentStatsService.recordTypeChanged(updatedDocument.getCreatedAt(), previousType, updatedDocument.getType());
+        }
         
         // Track document update
         trackingService.track(TrackingRequest.builder()
@@ -136,9 +163,17 @@ public class DocumentServiceImpl implements DocumentService {
         return updatedDocument;
     }
 
+    private void applySearchFields(Documents document) {
+        document.setTitleNorm(normalize(document.getTitle()));
+        document.setAgencyUnitNorm(normalize(document.getAgencyUnit()));
+        document.setKeywordTokens(tokenize(
+                document.getNumber(), document.getTitle(), document.getKeywords(), document.getAgencyUnit()));
+    }
+
     private void handleAttachmentUpdate(Documents existingDocument, MultipartFile file) {
         // Delete existing attachment if exists
         if (existingDocument.getAttachment() != null) {
+            attachmentCacheService.invalidate(existingDocument.getAttachment());
             s3Service.deleteFile(existingDocument.getAttachment());
         }
 
@@ -147,6 +182,42 @@ public class DocumentServiceImpl implements DocumentService {
         existingDocument.setAttachment(fileName);
     }
 
+    @Override
+    public Documents confirmAttachmentUpload(String id, String key) {
+        Documents document = findById(id);
+        String previousAttachment = document.getAttachment();
+
+        String fileUrl = s3Service.confirmUpload(id, key);
+        document.setAttachment(fileUrl);
+        document.setUpdatedAt(LocalDateTime.now());
+        Documents updatedDocument = documentRepository.save(document);
+
+        // The old object is removed only once the document points at the new one
+        if (previousAttachment != null && !previousAttachment.equals(fileUrl)) {
+            attachmentCacheService.invalidate(previousAttachment);
+            try {
+                s3Service.deleteFile(previousAttachment);
+            } catch (Exception e) {
+                log.error("Error deleting replaced attachment", e);
+            }
+        }
+
+        trackingService.track(TrackingRequest.builder()
+            .actor(userService.getCurrentUser())
+            .entityType(TrackingEntityType.DOCUMENT)
+            .entityId(id)
+            .action(TrackingActionType.UPDATE)
+            .changes(Map.of("attachment", ChangeLog.builder()
+                .fieldName("attachment")
+                .oldValue(previousAttachment)
+                .newValue(fileUrl)
+                .changeTime(LocalDateTime.now())
+                .build()))
+            .build());
+
+        return updatedDocument;
+    }
+
     @Override
     @Transactional
     public void deleteDocument(String id) {
@@ -154,6 +225,7 @@ public class DocumentServiceImpl implements DocumentService {
         
         // Delete attachment if exists
         if (document.getAttachment() != null) {
+            attachmentCacheService.invalidate(document.getAttachment());
             try {
                 s3Service.deleteFile(document.getAttachment());
             } catch (Exception e) {
@@ -162,6 +234,8 @@ public class DocumentServiceImpl implements DocumentService {
         }
         
         documentRepository.delete(document);
+        agencyUnitSuggestIndex.remove(document.getAgencyUnit());
+        documentStatsService.recordDeleted(document);
         
         // Track document deletion
         trackingService.track(TrackingRequest.builder()
@@ -249,6 +323,30 @@ public class DocumentServiceImpl implements DocumentService {
         }
     }
 
+    @Override
+    public List<Documents> findRecentSummaries(DocumentType type, int limit) {
+        try {
+            List<Documents> documents = documentRepository.findRecentSummaries(type, limit);
+            referenceResolver.attachMissingCreators(documents);
+            return documents;
+        } catch (Exception e) {
+            log.error("Error finding recent document summaries", e);
+            throw new RuntimeException("Error finding recent document summaries", e);
+        }
+    }
+
+    @Override
+    public Page<Documents> findSummaries(DocumentType type, DocumentStatus status, Pageable pageable) {
+        try {
+            Page<Documents> documents = documentRepository.findSummaries(type, status, pageable);
+            referenceResolver.attachMissingCreators(documents.getContent());
+            return documents;
+        } catch (Exception e) {
+            log.error("Error finding document summaries: {}, {}", type, status, e);
+            throw new RuntimeException("Error finding document summaries", e);
+        }
+    }
+
     @Override
     public Page<Documents> findByType(DocumentType type, Pageable pageable) {
         try {
@@ -307,9 +405,26 @@ public class DocumentServiceImpl implements DocumentService {
 
     @Override
     public Page<Documents> searchDocuments(String keyword, DocumentType type, LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
+        Page<Documents> results = search(keyword, type, startDate, endDate, pageable, false);
+        // The full view serializes createBy, the creators of the page come from one query
+        referenceResolver.attachCreators(results.getContent());
+        return results;
+    }
+
+    @Override
+    public Page<Documents> searchDocumentSummaries(String keyword, DocumentType type, LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
+        Page<Documents> results = search(keyword, type, startDate, endDate, pageable, true);
+        referenceResolver.attachMissingCreators(results.getContent());
+        return results;
+    }
+
+    private Page<Documents> search(String keyword, DocumentType type, LocalDateTime startDate, LocalDateTime endDate,
+                                   Pageable pageable, boolean summary) {
         try {
             if (keyword == null || keyword.trim().isEmpty()) {
-                if(type != null)
+                if (summary)
+                    return documentRepository.findSummaries(type, null, pageable);
+                else if(type != null)
                     return findByType(type, pageable);
                 else
                     return findAll(pageable);
@@ -322,22 +437,22 @@ public class DocumentServiceImpl implements DocumentService {
             LocalDateTime effectiveStartDate = startDate != null ? startDate : LocalDateTime.of(1970, 1, 1, 0, 0);
             LocalDateTime effectiveEndDate = endDate != null ? endDate : LocalDateTime.now();
 
-            // Get results from MongoDB query
-            List<Documents> results = documentRepository.searchDocumentsWithCreator(
-                keyword, 
-                effectiveStartDate, 
+            // Paging and total count are resolved by MongoDB
+            if (summary) {
+                return documentRepository.searchDocumentSummaries(
+                    keyword,
+                    effectiveStartDate,
+                    effectiveEndDate,
+                    type,
+                    pageable
+                );
+            }
+            return documentRepository.searchDocumentsWithCreator(
+                keyword,
+                effectiveStartDate,
                 effectiveEndDate,
-                type
-            );
-
-            // Manual pagination
-            int start = (int) pageable.getOffset();
-            int end = Math.min(start + pageable.getPageSize(), results.size());
-
-            return new PageImpl<>(
-                results.subList(start, end),
-                pageable,
-                results.size()
+                type,
+                pageable
             );
         } catch (Exception e) {
             log.error("Error searching documents with keyword: {} and date range: {} to {}", 
@@ -346,43 +461,79 @@ public class DocumentServiceImpl implements DocumentService {
         }
     }
 
+    @Override
+    public Page<Documents> fullTextSearch(String keyword, DocumentType type, Pageable pageable) {
+        try {
+            if (keyword == null || keyword.trim().isEmpty()) {
+                return Page.empty(pageable);
+            }
+            return documentRepository.fullTextSearch(keyword.trim(), type, pageable);
+        } catch (Exception e) {
+            log.error("Error running full-text search with keyword: {}", keyword, e);
+            throw new RuntimeException("Error running full-text search", e);
+        }
+    }
+
     @Override
     public Map<DocumentStatus, Long> getStatusCountsByType(DocumentType type) {
         Map<DocumentStatus, Long> statusCounts = new EnumMap<>(DocumentStatus.class);
         for (DocumentStatus status : DocumentStatus.values()) {
-            long count = documentRepository.countByTypeAndStatus(type, status);
-            statusCounts.put(status, count);
+            statusCounts.put(status, 0L);
         }
+        documentRepository.countByStatusForType(type).stream()
+                .filter(bucket -> bucket.getStatus() != null)
+                .forEach(bucket -> statusCounts.put(bucket.getStatus(), bucket.getCount()));
         return statusCounts;
     }
 
     @Override
     public List<String> suggestAgencyUnits(String keyword, int limit) {
         try {
-            String searchKeyword = keyword != null ? keyword : "";
-            return documentRepository.suggestAgencyUnits(searchKeyword, limit);
+            if (agencyUnitSuggestIndex.isReady()) {
+                return agencyUnitSuggestIndex.suggest(keyword, limit);
+            }
+
+            // Fall back to MongoDB while the index is still being built, matching word starts and
+            // ranking by use like the index does
+            String searchKeyword = keyword != null ? normalize(keyword) : "";
+            return documentRepository.suggestAgencyUnits("(^| )" + Pattern.quote(searchKeyword), limit);
         } catch (Exception e) {
             log.error("Error suggesting agency units for keyword: {}", keyword, e);
             throw new RuntimeException("Error suggesting agency units", e);
         }
     }
 
+    @Override
+    public long backfillSearchFields() {
+        long updated = documentRepository.backfillSearchFields();
+        log.info("Backfilled search fields for {} documents", updated);
+        return updated;
+    }
+
+    @Override
+    public long migrateCreatorReferences() {
+        long updated = documentRepository.migrateCreatorReferences();
+        log.info("Migrated creator references for {} documents", updated);
+        return updated;
+    }
+
+    @Override
+    public Map<String, User> resolveCreators(Collection<Documents> documents) {
+        return referenceResolver.resolveCreators(documents);
+    }
+
+    @Override
+    public User resolveCreator(Documents document) {
+        return referenceResolver.resolveCreators(List.of(document)).get(document.getDocumentId());
+    }
+
     @Override
     public Page<Documents> filterDocuments(
         FilterRequest request,
         Pageable pageable
     ) {
         try {
-            return documentRepository.filterDocuments(
-                request.getType(),
-                request.getAgencyUnit() != null ? request.getAgencyUnit() : "",
-                request.getStatus(),
-                request.getUrgencyLevel(),
-                request.getSecretLevel(),
-                request.getStartDate(),
-                request.getEndDate(),
-                pageable
-            );
+            return documentRepository.filterDocuments(request, pageable);
         } catch (Exception e) {
             log.error("Error filtering documents", e);
             throw new RuntimeException("Error filtering documents", e);
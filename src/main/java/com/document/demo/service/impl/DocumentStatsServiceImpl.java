@@ -0,0 +1,193 @@
+package com.document.demo.service.impl;
+
+import com.document.demo.dto.response.DocumentStatisticRangeResponse;
+import com.document.demo.exception.BadRequestException;
+import com.document.demo.models.DocumentStatsDaily;
+import com.document.demo.models.Documents;
+import com.document.demo.models.enums.DocumentType;
+import com.document.demo.repository.DocumentStatsDailyRepository;
+import com.document.demo.service.DocumentStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class DocumentStatsServiceImpl implements DocumentStatsService {
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private final DocumentStatsDailyRepository documentStatsDailyRepository;
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void recordCreated(Documents document) {
+        increment(document.getCreatedAt(), document.getType(), 1);
+    }
+
+    @Override
+    public void recordDeleted(Documents document) {
+        increment(document.getCreatedAt(), document.getType(), -1);
+    }
+
+    @Override
+    public void recordTypeChanged(LocalDateTime createdAt, DocumentType oldType, DocumentType newType) {
+        if (oldType == newType) {
+            return;
+        }
+        increment(createdAt, oldType, -1);
+        increment(createdAt, newType, 1);
+    }
+
+    private void increment(LocalDateTime createdAt, DocumentType type, long delta) {
+        if (createdAt == null) {
+            return;
+        }
+        try {
+            LocalDate day = createdAt.toLocalDate();
+            Update update = new Update()
+                    .setOnInsert("date", day)
+                    .inc(typeField(type), delta)
+                    .inc("total", delta);
+            mongoTemplate.upsert(
+                    Query.query(Criteria.where("_id").is(day.toString())),
+                    update,
+                    DocumentStatsDaily.class
+            );
+        } catch (Exception e) {
+            // The rollup can be rebuilt, so it must never fail a document write
+            log.error("Error updating daily document statistics", e);
+        }
+    }
+
+    @Override
+    public int rebuild() {
+        String timezone = ZoneId.systemDefault().getId();
+        List<AggregationOperation> operations = List.of(
+                Aggregation.match(Criteria.where("createdAt").ne(null)),
+                context -> new Document("$group", new Document("_id", new Document()
+                        .append("day", new Document("$dateToString", new Document("format", "%Y-%m-%d")
+                                .append("date", "$createdAt")
+                                .append("timezone", timezone)))
+                        .append("type", "$type"))
+                        .append("count", new Document("$sum", 1)))
+        );
+
+        List<Document> groups = mongoTemplate
+                .aggregate(Aggregation.newAggregation(operations), "documents", Document.class)
+                .getMappedResults();
+
+        Map<String, DocumentStatsDaily> days = new LinkedHashMap<>();
+        for (Document group : groups) {
+            Document id = group.get("_id", Document.class);
+            String day = id.getString("day");
+            DocumentStatsDaily stats = days.computeIfAbsent(day, key -> DocumentStatsDaily.builder()
+                    .statsId(key)
+                    .date(LocalDate.parse(key))
+                    .build());
+
+            long count = ((Number) group.get("count")).longValue();
+            String type = id.getString("type");
+            switch (type != null ? type : "") {
+                case "INCOMING" -> stats.setIncoming(stats.getIncoming() + count);
+                case "OUTGOING" -> stats.setOutgoing(stats.getOutgoing() + count);
+                case "INTERNAL" -> stats.setInternal(stats.getInternal() + count);
+                default -> stats.setOther(stats.getOther() + count);
+            }
+            stats.setTotal(stats.getTotal() + count);
+        }
+
+        // Each day is overwritten in place, readers never see an empty or half-written rollup
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DocumentStatsDaily.class);
+        int pending = 0;
+        for (DocumentStatsDaily stats : days.values()) {
+            bulk.upsert(
+                    Query.query(Criteria.where("_id").is(stats.getStatsId())),
+                    new Update()
+                            .set("date", stats.getDate())
+                            .set("incoming", stats.getIncoming())
+                            .set("outgoing", stats.getOutgoing())
+                            .set("internal", stats.getInternal())
+                            .set("other", stats.getOther())
+                            .set("total", stats.getTotal()));
+            if (++pending == REBUILD_BATCH_SIZE) {
+                bulk.execute();
+                bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DocumentStatsDaily.class);
+                pending = 0;
+            }
+        }
+        if (pending > 0) {
+            bulk.execute();
+        }
+
+        // Days whose documents have all been deleted
+        mongoTemplate.remove(Query.query(Criteria.where("_id").nin(days.keySet())), DocumentStatsDaily.class);
+        log.info("Rebuilt daily document statistics for {} days", days.size());
+        return days.size();
+    }
+
+    @Override
+    public List<DocumentStatisticRangeResponse> getStatistics(int year, String granularity) {
+        Function<LocalDate, String> periodOf = switch (granularity.toLowerCase()) {
+            case "day" -> LocalDate::toString;
+            case "week" -> date -> String.format("%d-W%02d",
+                    date.get(IsoFields.WEEK_BASED_YEAR), date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            case "month" -> date -> date.format(DateTimeFormatter.ofPattern("yyyy-MM"));
+            default -> throw new BadRequestException("Invalid granularity: " + granularity);
+        };
+
+        LocalDate start = LocalDate.of(year, 1, 1);
+        LocalDate end = LocalDate.of(year, 12, 31);
+
+        // Every period of the year is present, so charts get zeros instead of gaps
+        Map<String, DocumentStatisticRangeResponse> periods = new LinkedHashMap<>();
+        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+            String period = periodOf.apply(date);
+            periods.computeIfAbsent(period, key -> DocumentStatisticRangeResponse.builder().period(key).build());
+        }
+
+        for (DocumentStatsDaily stats : documentStatsDailyRepository.findByDateRange(start, end)) {
+            DocumentStatisticRangeResponse period = periods.get(periodOf.apply(stats.getDate()));
+            if (period == null) {
+                continue;
+            }
+            period.setCountIncomingDocument(period.getCountIncomingDocument() + stats.getIncoming());
+            period.setCountOutgoingDocument(period.getCountOutgoingDocument() + stats.getOutgoing());
+            period.setCountInternalDocument(period.getCountInternalDocument() + stats.getInternal());
+            period.setTotal(period.getTotal() + stats.getTotal());
+        }
+
+        return new ArrayList<>(periods.values());
+    }
+
+    private String typeField(DocumentType type) {
+        if (type == null) {
+            return "other";
+        }
+        return switch (type) {
+            case INCOMING -> "incoming";
+            case OUTGOING -> "outgoing";
+            case INTERNAL -> "internal";
+            default -> "other";
+        };
+    }
+}
@@ -0,0 +1,51 @@
+package com.document.demo.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Date;
+import java.util.UUID;
+
+// Cross-node lock for scheduled jobs, one lease document per job in job_locks. A node holds the job
+// while lockedUntil is in the future, a crashed holder loses it once the lease runs out.
+@Component
+@RequiredArgsConstructor
+public class MongoJobLock {
+    private static final String COLLECTION = "job_locks";
+
+    private final MongoTemplate mongoTemplate;
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + ":" + UUID.randomUUID();
+
+    // Takes a free or expired lease, or extends the one this node already holds
+    public boolean tryAcquire(String job, Duration lease) {
+        Date now = new Date();
+        try {
+            mongoTemplate.upsert(
+                    Query.query(Criteria.where("_id").is(job).orOperator(
+                            Criteria.where("lockedUntil").lte(now),
+                            Criteria.where("owner").is(owner))),
+                    new Update()
+                            .set("lockedUntil", new Date(now.getTime() + lease.toMillis()))
+                            .set("owner", owner),
+                    COLLECTION);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // The lease document exists and another node holds it
+            return false;
+        }
+    }
+
+    public void release(String job) {
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(job).and("owner").is(owner)),
+                new Update().set("lockedUntil", new Date()),
+                COLLECTION);
+    }
+}
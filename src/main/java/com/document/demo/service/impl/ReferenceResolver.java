@@ -0,0 +1,62 @@
+package com.document.demo.service.impl;
+
+import com.document.demo.models.Documents;
+import com.document.demo.models.User;
+import com.document.demo.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Resolves referenced users for a whole page in one query instead of one DBRef lookup per row
+@Component
+@RequiredArgsConstructor
+public class ReferenceResolver {
+    private final UserRepository userRepository;
+
+    // Creators keyed by documentId
+    public Map<String, User> resolveCreators(Collection<Documents> documents) {
+        Map<String, String> creatorIds = new HashMap<>();
+        for (Documents document : documents) {
+            String creatorId = document.getCreatorId();
+            if (creatorId != null && document.getDocumentId() != null) {
+                creatorIds.put(document.getDocumentId(), creatorId);
+            }
+        }
+        if (creatorIds.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, User> users = userRepository.findAllById(new HashSet<>(creatorIds.values())).stream()
+                .collect(Collectors.toMap(User::getUserId, Function.identity()));
+
+        Map<String, User> creators = new HashMap<>();
+        creatorIds.forEach((documentId, userId) -> {
+            User user = users.get(userId);
+            if (user != null) {
+                creators.put(documentId, user);
+            }
+        });
+        return creators;
+    }
+
+    // Sets resolvedCreator on every document, the full view serializes it as createBy
+    public void attachCreators(Collection<Documents> documents) {
+        Map<String, User> creators = resolveCreators(documents);
+        for (Documents document : documents) {
+            document.setResolvedCreator(creators.get(document.getDocumentId()));
+        }
+    }
+
+    // Summary rows read the embedded creator, only documents written before it need a lookup
+    public void attachMissingCreators(Collection<Documents> documents) {
+        attachCreators(documents.stream()
+                .filter(document -> document.getCreator() == null)
+                .toList());
+    }
+}
@@ -1,12 +1,16 @@
 package com.document.demo.service.impl;
 
 import com.document.demo.dto.response.ReportDetailResponse;
+import com.document.demo.models.Documents;
+import com.document.demo.models.User;
 import com.document.demo.models.enums.DocumentStatus;
 import com.document.demo.models.enums.DocumentType;
+import com.document.demo.models.projection.DocumentReportSnapshot;
 import com.document.demo.repository.DocumentRepository;
-import com.document.demo.repository.UserRepository;
+import com.document.demo.service.CounterService;
 import com.document.demo.service.ReportService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -21,20 +25,27 @@ import java.util.Locale;
 @RequiredArgsConstructor
 public class ReportServiceImp implements ReportService {
     private final DocumentRepository documentRepository;
-    private final UserRepository userRepository;
+    private final CounterService counterService;
+
+    // 0 disables caching: every call runs the aggregation
+    @Value("${report.snapshot.ttl-ms:0}")
+    private long snapshotTtlMs;
+
+    private volatile DocumentReportSnapshot cachedSnapshot;
+
     @Override
     public int getTotalDocument() {
-        return documentRepository.findAll().size();
+        return (int) counterService.getCount(Documents.class);
     }
 
     @Override
     public int getCountDocumentByType(DocumentType documentType) {
-        return (int) documentRepository.countByType(documentType);
+        return (int) getReportSnapshot().countByType(documentType);
     }
 
     @Override
     public int getTotalUser() {
-        return userRepository.findAll().size();
+        return (int) counterService.getCount(User.class);
     }
 
     @Override
@@ -175,39 +186,41 @@ public class ReportServiceImp implements ReportService {
     }
 
     public int getDocumentByTypeAndStatus(DocumentType documentType, DocumentStatus documentStatus){
-        return (int) documentRepository.countByTypeAndStatus(documentType, documentStatus);
+        return (int) getReportSnapshot().countByTypeAndStatus(documentType, documentStatus);
     }
 
     @Override
     public List<ReportDetailResponse> getReportDetail() {
-        ReportDetailResponse rp1 = new ReportDetailResponse(
-                DocumentType.INCOMING,
-                getCountDocumentByType(DocumentType.INCOMING),
-                getDocumentByTypeAndStatus(DocumentType.INCOMING, DocumentStatus.PENDING),
-                getDocumentByTypeAndStatus(DocumentType.INCOMING, DocumentStatus.PROCESSING),
-                getDocumentByTypeAndStatus(DocumentType.INCOMING, DocumentStatus.COMPLETED)
-        );
-        ReportDetailResponse rp2 = new ReportDetailResponse(
-                DocumentType.OUTGOING,
-                getCountDocumentByType(DocumentType.OUTGOING),
-                getDocumentByTypeAndStatus(DocumentType.OUTGOING, DocumentStatus.PENDING),
-                getDocumentByTypeAndStatus(DocumentType.OUTGOING, DocumentStatus.PROCESSING),
-                getDocumentByTypeAndStatus(DocumentType.OUTGOING, DocumentStatus.COMPLETED)
-        );
-        ReportDetailResponse rp3 = new ReportDetailResponse(
-                DocumentType.INTERNAL,
-                getCountDocumentByType(DocumentType.INTERNAL),
-                getDocumentByTypeAndStatus(DocumentType.INTERNAL, DocumentStatus.PENDING),
-                getDocumentByTypeAndStatus(DocumentType.INTERNAL, DocumentStatus.PROCESSING),
-                getDocumentByTypeAndStatus(DocumentType.INTERNAL, DocumentStatus.COMPLETED)
-        );
+        DocumentReportSnapshot snapshot = getReportSnapshot();
         List<ReportDetailResponse> list = new ArrayList<>();
-        list.add(rp1);
-        list.add(rp2);
-        list.add(rp3);
+        for (DocumentType type : List.of(DocumentType.INCOMING, DocumentType.OUTGOING, DocumentType.INTERNAL)) {
+            list.add(new ReportDetailResponse(
+                    type,
+                    (int) snapshot.countByType(type),
+                    (int) snapshot.countByTypeAndStatus(type, DocumentStatus.PENDING),
+                    (int) snapshot.countByTypeAndStatus(type, DocumentStatus.PROCESSING),
+                    (int) snapshot.countByTypeAndStatus(type, DocumentStatus.COMPLETED)
+            ));
+        }
         return list;
     }
 
+    @Override
+    public DocumentReportSnapshot getReportSnapshot() {
+        DocumentReportSnapshot snapshot = cachedSnapshot;
+        if (snapshot != null && snapshotTtlMs > 0
+                && snapshot.getGeneratedAt().plusNanos(snapshotTtlMs * 1_000_000).isAfter(LocalDateTime.now())) {
+            return snapshot;
+        }
+
+        snapshot = new DocumentReportSnapshot(
+                documentRepository.countByTypeStatusUrgencyAndSecretLevel(),
+                LocalDateTime.now()
+        );
+        cachedSnapshot = snapshot;
+        return snapshot;
+    }
+
     private double calculatePercentageChange(long current, long previous) {
         if (previous == 0) {
             return current > 0 ? 100.0 : 0.0;
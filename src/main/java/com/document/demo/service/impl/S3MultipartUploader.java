@@ -0,0 +1,220 @@
+package com.document.demo.service.impl;
+
+import com.document.demo.exception.FileUploadException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Uploads large files with S3 multipart upload. Parts are read one after another from the
+// source stream and sent in parallel. The part buffers are shared by every upload on the node,
+// at most `max-buffered-parts` parts are held in memory at any time.
+// A failed upload is aborted so S3 does not keep the parts that already arrived.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class S3MultipartUploader {
+    // S3 rejects parts below 5MB except for the last one
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+    private final S3Client s3Client;
+
+    @Value("${aws.s3.multipart.threshold:16777216}")
+    private long threshold;
+
+    @Value("${aws.s3.multipart.part-size:8388608}")
+    private long partSize;
+
+    @Value("${aws.s3.multipart.concurrency:4}")
+    private int concurrency;
+
+    @Value("${aws.s3.multipart.max-buffered-parts:8}")
+    private int maxBufferedParts;
+
+    @Value("${aws.s3.multipart.part-retries:2}")
+    private int partRetries;
+
+    // Doubled after every failed attempt of a part
+    @Value("${aws.s3.multipart.retry-backoff-ms:500}")
+    private long retryBackoffMs;
+
+    private ExecutorService executor;
+    // Node-wide part buffers, a reader waits here until one is free
+    private Semaphore partSlots;
+
+    @PostConstruct
+    void start() {
+        partSize = Math.max(partSize, MIN_PART_SIZE);
+        maxBufferedParts = Math.max(maxBufferedParts, concurrency);
+        partSlots = new Semaphore(maxBufferedParts, true);
+        AtomicInteger threadCount = new AtomicInteger();
+        // Every queued part holds a slot, so the queue never grows past the slot count
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(concurrency, concurrency,
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(maxBufferedParts), runnable -> {
+                    Thread thread = new Thread(runnable, "s3-upload-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        executor = pool;
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+    public boolean shouldUse(long size) {
+        return size >= threshold;
+    }
+
+    public void upload(String bucket, String key, String contentType, InputStream input, long size) {
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .contentType(contentType)
+                .build()).uploadId();
+
+        List<Future<CompletedPart>> parts = new ArrayList<>();
+        try {
+            long remaining = size;
+            int partNumber = 1;
+            while (remaining > 0) {
+                int length = (int) Math.min(partSize, remaining);
+                partSlots.acquire();
+                byte[] buffer;
+                try {
+                    buffer = input.readNBytes(length);
+                } catch (IOException e) {
+                    partSlots.release();
+                    throw e;
+                }
+                if (buffer.length < length) {
+                    partSlots.release();
+                    throw new IOException("Upload stream ended after " + (size - remaining + buffer.length) + " bytes");
+                }
+                remaining -= length;
+
+                int number = partNumber++;
+                PartTask part = new PartTask(() -> uploadPart(bucket, key, uploadId, number, buffer));
+                try {
+                    executor.execute(part);
+                } catch (RejectedExecutionException e) {
+                    // Never ran, cancelling completes the task and frees its slot
+                    part.cancel(false);
+                    throw e;
+                }
+                parts.add(part);
+                failFast(parts);
+            }
+
+            List<CompletedPart> completed = new ArrayList<>(parts.size());
+            for (Future<CompletedPart> part : parts) {
+                completed.add(part.get());
+            }
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completed).build())
+                    .build());
+        } catch (Exception e) {
+            parts.forEach(part -> part.cancel(true));
+            abort(bucket, key, uploadId);
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            log.error("Multipart upload of {} failed", key, cause);
+            throw new FileUploadException("Failed to upload file to S3: " + cause.getMessage(), cause);
+        }
+    }
+
+    private CompletedPart uploadPart(String bucket, String key, String uploadId, int partNumber, byte[] data)
+            throws InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                UploadPartResponse response = s3Client.uploadPart(UploadPartRequest.builder()
+                        .bucket(bucket)
+                        .key(key)
+                        .uploadId(uploadId)
+                        .partNumber(partNumber)
+                        .contentLength((long) data.length)
+                        .build(), RequestBody.fromBytes(data));
+                return CompletedPart.builder()
+                        .partNumber(partNumber)
+                        .eTag(response.eTag())
+                        .build();
+            } catch (SdkException e) {
+                if (attempt >= partRetries) {
+                    throw e;
+                }
+                long backoff = retryBackoffMs << attempt;
+                log.warn("Retrying part {} of {} in {} ms after: {}", partNumber, key, backoff, e.getMessage());
+                Thread.sleep(backoff);
+            }
+        }
+    }
+
+    // Stops reading the source as soon as one part has failed for good
+    private static void failFast(List<Future<CompletedPart>> parts) throws ExecutionException, InterruptedException {
+        for (Future<CompletedPart> part : parts) {
+            if (part.isDone()) {
+                part.get();
+            }
+        }
+    }
+
+    // Gives the part's slot back when the task completes in any way: uploaded, failed, or cancelled
+    // before a thread picked it up, in which case the callable never runs
+    private final class PartTask extends FutureTask<CompletedPart> {
+        PartTask(Callable<CompletedPart> callable) {
+            super(callable);
+        }
+
+        @Override
+        protected void done() {
+            partSlots.release();
+        }
+    }
+
+    private void abort(String bucket, String key, String uploadId) {
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build());
+        } catch (Exception e) {
+            log.warn("Could not abort multipart upload {} of {}: {}", uploadId, key, e.getMessage());
+        }
+    }
+}
@@ -1,33 +1,65 @@
 package com.document.demo.service.impl;
 
+import com.document.demo.dto.response.PresignedUrlResponse;
+import com.document.demo.dto.response.S3ObjectInfo;
+import com.document.demo.exception.BadRequestException;
+import com.document.demo.exception.FileDownloadException;
+import com.document.demo.exception.FileNotFoundException;
 import com.document.demo.exception.FileUploadException;
 import com.document.demo.service.S3Service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.ContentDisposition;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
-import software.amazon.awssdk.core.ResponseBytes;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.BucketLifecycleConfiguration;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.ExpirationStatus;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
-import software.amazon.awssdk.services.s3.model.GetObjectResponse;
-import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
-import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.LifecycleExpiration;
+import software.amazon.awssdk.services.s3.model.LifecycleRule;
+import software.amazon.awssdk.services.s3.model.LifecycleRuleFilter;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class S3ServiceImpl implements S3Service {
+    // Pre-signed uploads land here and are moved out on confirm, a lifecycle rule expires the rest
+    private static final String PENDING_PREFIX = "pending/";
+    private static final String PENDING_RULE_ID = "expire-pending-uploads";
 
     private final S3Client s3Client;
+    private final S3MultipartUploader multipartUploader;
+    private final S3Presigner s3Presigner;
     
     @Value("${aws.s3.bucket}")
     private String bucketName;
@@ -35,6 +67,18 @@ public class S3ServiceImpl implements S3Service {
     @Value("${aws.s3.region}")
     private String region;
 
+    @Value("${aws.s3.presign.enabled:false}")
+    private boolean presignEnabled;
+
+    @Value("${aws.s3.presign.ttl-seconds:900}")
+    private long presignTtlSeconds;
+
+    @Value("${aws.s3.presign.max-size:104857600}")
+    private long presignMaxSize;
+
+    @Value("${aws.s3.presign.pending-expiry-days:1}")
+    private int pendingExpiryDays;
+
     @Override
     public String uploadFile(MultipartFile file) {
         if (file == null || file.isEmpty()) {
@@ -45,25 +89,29 @@ public class S3ServiceImpl implements S3Service {
             String contentType = file.getContentType();
             String originalFilename = file.getOriginalFilename();
             String fileExtension = getFileExtension(originalFilename);
+            // S3 has no folders, the path is only a key prefix and needs no marker objects
             String folderPath = determineStoragePath(fileExtension, contentType);
-            
-            // Tạo folders nếu chưa tồn tại
-            createFoldersIfNotExist(folderPath);
-            
+
             String fileName = generateUniqueFileName(originalFilename);
             String fullPath = folderPath + "/" + fileName;
             
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                .bucket(bucketName)
-                .key(fullPath)
-                .contentType(file.getContentType())
-                .build();
+            // Read straight from the multipart stream, large files go up in parallel parts
+            try (InputStream input = file.getInputStream()) {
+                if (multipartUploader.shouldUse(file.getSize())) {
+                    multipartUploader.upload(bucketName, fullPath, contentType, input, file.getSize());
+                } else {
+                    PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(fullPath)
+                        .contentType(contentType)
+                        .build();
 
-            s3Client.putObject(putObjectRequest, 
-                RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
+                    s3Client.putObject(putObjectRequest,
+                        RequestBody.fromInputStream(input, file.getSize()));
+                }
+            }
 
-            return String.format("https://%s.s3.%s.amazonaws.com/%s", 
-                bucketName, region, fullPath);
+            return toFileUrl(fullPath);
 
         } catch (IOException e) {
             log.error("Failed to upload file to S3", e);
@@ -84,45 +132,8 @@ public class S3ServiceImpl implements S3Service {
         };
     }
 
-    private void createFoldersIfNotExist(String folderPath) {
-        String[] folders = folderPath.split("/");
-        String currentPath = "";
-        
-        for (String folder : folders) {
-            currentPath = currentPath.isEmpty() ? folder : currentPath + "/" + folder;
-            if (!folderExists(currentPath)) {
-                createFolder(currentPath);
-            }
-        }
-    }
-
-    private boolean folderExists(String folderPath) {
-        try {
-            ListObjectsV2Request request = ListObjectsV2Request.builder()
-                .bucket(bucketName)
-                .prefix(folderPath + "/")
-                .maxKeys(1)
-                .build();
-                
-            ListObjectsV2Response response = s3Client.listObjectsV2(request);
-            return response.hasContents();
-        } catch (Exception e) {
-            return false;
-        }
-    }
-
-    private void createFolder(String folderPath) {
-        try {
-            PutObjectRequest request = PutObjectRequest.builder()
-                .bucket(bucketName)
-                .key(folderPath + "/")
-                .build();
-                
-            s3Client.putObject(request, RequestBody.empty());
-        } catch (Exception e) {
-            log.error("Error creating folder: {}", folderPath, e);
-            throw new FileUploadException("Failed to create folder: " + folderPath);
-        }
+    private String toFileUrl(String key) {
+        return String.format("https://%s.s3.%s.amazonaws.com/%s", bucketName, region, key);
     }
 
     private String getFileExtension(String filename) {
@@ -139,7 +150,7 @@ public class S3ServiceImpl implements S3Service {
     @Override
     public void deleteFile(String fileUrl) {
         try {
-            String fileName = extractFileNameFromUrl(fileUrl);
+            String fileName = extractKeyFromUrl(fileUrl);
             
             DeleteObjectRequest deleteObjectRequest = DeleteObjectRequest.builder()
                 .bucket(bucketName)
@@ -153,23 +164,205 @@ public class S3ServiceImpl implements S3Service {
     }
 
     @Override
-    public byte[] downloadFile(String fileUrl) {
+    public S3ObjectInfo head(String fileUrl) {
+        String key = extractKeyFromUrl(fileUrl);
         try {
-            String fileName = extractFileNameFromUrl(fileUrl);
-            
-            GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+            HeadObjectResponse response = s3Client.headObject(HeadObjectRequest.builder()
                 .bucket(bucketName)
-                .key(fileName)
+                .key(key)
+                .build());
+
+            return S3ObjectInfo.builder()
+                .key(key)
+                .contentLength(response.contentLength())
+                .eTag(response.eTag())
+                .contentType(response.contentType())
+                .lastModified(response.lastModified())
                 .build();
+        } catch (NoSuchKeyException e) {
+            throw new FileNotFoundException("File not found: " + key);
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                throw new FileNotFoundException("File not found: " + key);
+            }
+            throw new FileDownloadException("Failed to read file metadata from S3", e);
+        }
+    }
 
-            ResponseBytes<GetObjectResponse> objectBytes = s3Client.getObjectAsBytes(getObjectRequest);
-            return objectBytes.asByteArray();
+    @Override
+    public InputStream openStream(String fileUrl, String eTag, long start, long end) {
+        String key = extractKeyFromUrl(fileUrl);
+        try {
+            return s3Client.getObject(GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .range("bytes=" + start + "-" + end)
+                .ifMatch(eTag)
+                .build());
+        } catch (NoSuchKeyException e) {
+            throw new FileNotFoundException("File not found: " + key);
+        } catch (S3Exception e) {
+            if (e.statusCode() == 412) {
+                throw new FileDownloadException("File changed while it was being read: " + key, e);
+            }
+            throw new FileDownloadException("Failed to download file from S3", e);
         } catch (Exception e) {
-            throw new RuntimeException("Failed to download file from S3", e);
+            throw new FileDownloadException("Failed to download file from S3", e);
+        }
+    }
+
+    @Override
+    public PresignedUrlResponse presignUpload(String documentId, String fileName, String contentType) {
+        requirePresignEnabled();
+        if (fileName == null || fileName.isBlank() || fileName.contains("/")) {
+            throw new BadRequestException("A plain file name is required");
         }
+
+        // Scoped to the document, confirmUpload only accepts keys under pending/<folder>/<documentId>/
+        String folderPath = determineStoragePath(getFileExtension(fileName), contentType);
+        String key = PENDING_PREFIX + folderPath + "/" + documentId + "/" + generateUniqueFileName(fileName);
+
+        PresignedPutObjectRequest presigned = s3Presigner.presignPutObject(PutObjectPresignRequest.builder()
+            .signatureDuration(Duration.ofSeconds(presignTtlSeconds))
+            .putObjectRequest(PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)
+                .build())
+            .build());
+
+        return PresignedUrlResponse.builder()
+            .url(presigned.url().toString())
+            .method("PUT")
+            .key(key)
+            .expiresAt(presigned.expiration())
+            .headers(flattenHeaders(presigned.signedHeaders()))
+            .build();
+    }
+
+    @Override
+    public PresignedUrlResponse presignDownload(String fileUrl, String fileName) {
+        requirePresignEnabled();
+        String key = extractKeyFromUrl(fileUrl);
+
+        PresignedGetObjectRequest presigned = s3Presigner.presignGetObject(GetObjectPresignRequest.builder()
+            .signatureDuration(Duration.ofSeconds(presignTtlSeconds))
+            .getObjectRequest(GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .responseContentDisposition(ContentDisposition.inline()
+                    .filename(fileName, StandardCharsets.UTF_8)
+                    .build()
+                    .toString())
+                .build())
+            .build());
+
+        return PresignedUrlResponse.builder()
+            .url(presigned.url().toString())
+            .method("GET")
+            .key(key)
+            .expiresAt(presigned.expiration())
+            .headers(flattenHeaders(presigned.signedHeaders()))
+            .build();
     }
 
-    private String extractFileNameFromUrl(String fileUrl) {
-        return fileUrl.substring(fileUrl.lastIndexOf("/") + 1);
+    @Override
+    public String confirmUpload(String documentId, String key) {
+        requirePresignEnabled();
+        String[] segments = key.split("/");
+        boolean scoped = key.startsWith(PENDING_PREFIX)
+            && segments.length >= 4
+            && segments[segments.length - 2].equals(documentId)
+            && Arrays.stream(segments).noneMatch(segment -> segment.isEmpty() || segment.equals(".."));
+        if (!scoped) {
+            throw new BadRequestException("Key was not issued for this document");
+        }
+
+        String pendingUrl = toFileUrl(key);
+        S3ObjectInfo info = head(pendingUrl);
+        // A pre-signed PUT can't limit the size, so it is checked once the object is there
+        if (info.getContentLength() > presignMaxSize) {
+            deleteFile(pendingUrl);
+            throw new BadRequestException("Uploaded file exceeds the maximum size of " + presignMaxSize + " bytes");
+        }
+
+        // Only confirmed uploads leave the pending prefix and its expiry
+        String finalKey = key.substring(PENDING_PREFIX.length());
+        try {
+            s3Client.copyObject(CopyObjectRequest.builder()
+                .sourceBucket(bucketName)
+                .sourceKey(key)
+                .destinationBucket(bucketName)
+                .destinationKey(finalKey)
+                .build());
+        } catch (S3Exception e) {
+            throw new FileUploadException("Failed to move the uploaded file into place", e);
+        }
+        try {
+            deleteFile(pendingUrl);
+        } catch (RuntimeException e) {
+            log.warn("Could not delete pending upload {}, it expires with the lifecycle rule: {}", key, e.getMessage());
+        }
+        return toFileUrl(finalKey);
+    }
+
+    // Adds or updates the expiry rule for the pending prefix, other rules of the bucket are kept
+    @EventListener(ApplicationReadyEvent.class)
+    public void applyPendingUploadExpiry() {
+        if (!presignEnabled) {
+            return;
+        }
+
+        try {
+            List<LifecycleRule> rules = new ArrayList<>();
+            try {
+                rules.addAll(s3Client.getBucketLifecycleConfiguration(request -> request.bucket(bucketName)).rules());
+            } catch (S3Exception e) {
+                // 404 when the bucket has no lifecycle configuration yet
+                if (e.statusCode() != 404) {
+                    throw e;
+                }
+            }
+            rules.removeIf(rule -> PENDING_RULE_ID.equals(rule.id()));
+            rules.add(LifecycleRule.builder()
+                .id(PENDING_RULE_ID)
+                .filter(LifecycleRuleFilter.builder().prefix(PENDING_PREFIX).build())
+                .status(ExpirationStatus.ENABLED)
+                .expiration(LifecycleExpiration.builder().days(pendingExpiryDays).build())
+                .build());
+
+            s3Client.putBucketLifecycleConfiguration(request -> request
+                .bucket(bucketName)
+                .lifecycleConfiguration(BucketLifecycleConfiguration.builder().rules(rules).build()));
+        } catch (S3Exception e) {
+            log.error("Failed to set the expiry of pending uploads on bucket {}", bucketName, e);
+        }
+    }
+
+    private void requirePresignEnabled() {
+        if (!presignEnabled) {
+            throw new BadRequestException("Pre-signed transfers are disabled");
+        }
+    }
+
+    private static Map<String, String> flattenHeaders(Map<String, List<String>> headers) {
+        Map<String, String> flattened = new LinkedHashMap<>();
+        // host is set by the HTTP client from the URL
+        headers.forEach((name, values) -> {
+            if (!"host".equalsIgnoreCase(name)) {
+                flattened.put(name, String.join(",", values));
+            }
+        });
+        return flattened;
+    }
+
+    // Keys include the storage folder, e.g. documents/pdf/<uuid>_<name>
+    private String extractKeyFromUrl(String fileUrl) {
+        int schemeEnd = fileUrl.indexOf("://");
+        if (schemeEnd < 0) {
+            return fileUrl;
+        }
+        int pathStart = fileUrl.indexOf('/', schemeEnd + 3);
+        return pathStart < 0 ? "" : fileUrl.substring(pathStart + 1);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,243 @@
+package com.document.demo.service.impl;
+
+import com.document.demo.models.enums.TrackingEntityType;
+import com.document.demo.service.TrackingRetentionService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+// Tracking records expire through a TTL index on expireAt instead of one large delete.
+// Retention is configured per entity type and kept in retainUntil. expireAt is only set once a
+// record is in an archive file, so the TTL index never removes a record that was not archived.
+// Records are archived a few days before their retention ends, by one node at a time.
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class TrackingRetentionServiceImpl implements TrackingRetentionService {
+    private static final String COLLECTION = "tracking";
+    private static final int ARCHIVE_BATCH_SIZE = 500;
+    private static final String ARCHIVE_JOB = "tracking-archive";
+    private static final JsonWriterSettings JSON_SETTINGS = JsonWriterSettings.builder()
+            .outputMode(JsonMode.RELAXED)
+            .build();
+
+    private final MongoTemplate mongoTemplate;
+    private final Environment environment;
+    private final MongoJobLock jobLock;
+
+    @Value("${tracking.retention.default-days:90}")
+    private int defaultDays;
+
+    @Value("${tracking.retention.archive-lead-days:7}")
+    private int archiveLeadDays;
+
+    // Renewed after every batch, so it only has to outlast one batch if the node dies
+    @Value("${tracking.retention.archive-lock-ms:600000}")
+    private long archiveLockMillis;
+
+    @Value("${backup.path}")
+    private String backupPath;
+
+    private final Map<TrackingEntityType, Integer> retentionDays = new EnumMap<>(TrackingEntityType.class);
+
+    @PostConstruct
+    void loadRetention() {
+        // tracking.retention.<type>-days, e.g. tracking.retention.document-days=365
+        for (TrackingEntityType type : TrackingEntityType.values()) {
+            String key = "tracking.retention." + type.name().toLowerCase() + "-days";
+            retentionDays.put(type, environment.getProperty(key, Integer.class, defaultDays));
+        }
+    }
+
+    @Override
+    public LocalDateTime retainUntil(TrackingEntityType entityType, LocalDateTime timestamp) {
+        int days = entityType != null ? retentionDays.get(entityType) : defaultDays;
+        return (timestamp != null ? timestamp : LocalDateTime.now()).plusDays(days);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        try {
+            long updated = applyRetention(true);
+            if (updated > 0) {
+                log.info("Set retention on {} tracking records", updated);
+            }
+        } catch (Exception e) {
+            log.error("Error applying tracking retention: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public long applyRetention(boolean onlyMissing) {
+        long updated = 0;
+        for (TrackingEntityType type : TrackingEntityType.values()) {
+            updated += setRetainUntil(Criteria.where("entityType").is(type.name()), retentionDays.get(type), onlyMissing);
+        }
+
+        List<String> known = Arrays.stream(TrackingEntityType.values()).map(Enum::name).toList();
+        updated += setRetainUntil(Criteria.where("entityType").nin(known), defaultDays, onlyMissing);
+
+        // Records given an expireAt before it waited for the archive would expire unarchived
+        long reset = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("expireAt").exists(true).and("archived").ne(true)),
+                new Update().unset("expireAt"), COLLECTION).getModifiedCount();
+        if (reset > 0) {
+            log.info("Cleared expireAt on {} tracking records that are not archived yet", reset);
+        }
+
+        // Archived records follow a changed retention
+        if (!onlyMissing) {
+            mongoTemplate.updateMulti(Query.query(Criteria.where("archived").is(true)),
+                    AggregationUpdate.update().set("expireAt").toValue(expiry()), COLLECTION);
+        }
+        return updated;
+    }
+
+    private long setRetainUntil(Criteria criteria, int days, boolean onlyMissing) {
+        if (onlyMissing) {
+            criteria = criteria.and("retainUntil").exists(false);
+        }
+
+        long retentionMillis = Duration.ofDays(days).toMillis();
+        AggregationExpression retainUntil = context -> new Document("$add", List.of("$timestamp", retentionMillis));
+
+        return mongoTemplate.updateMulti(Query.query(criteria),
+                AggregationUpdate.update().set("retainUntil").toValue(retainUntil),
+                COLLECTION).getModifiedCount();
+    }
+
+    // The end of retention, or now for records archived after it already ended
+    private static AggregationExpression expiry() {
+        return context -> new Document("$max", List.of("$retainUntil", "$$NOW"));
+    }
+
+    @Scheduled(cron = "${tracking.retention.archive-cron:0 30 2 * * *}")
+    public void scheduledArchive() {
+        try {
+            archiveExpiring();
+        } catch (Exception e) {
+            log.error("Error archiving tracking records: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized Path archiveExpiring() throws IOException {
+        if (!jobLock.tryAcquire(ARCHIVE_JOB, Duration.ofMillis(archiveLockMillis))) {
+            log.info("Tracking archive is already running on another node");
+            return null;
+        }
+        try {
+            return archive();
+        } finally {
+            jobLock.release(ARCHIVE_JOB);
+        }
+    }
+
+    private Path archive() throws IOException {
+        LocalDateTime cutoff = LocalDateTime.now().plusDays(archiveLeadDays);
+        Query query = Query.query(Criteria.where("retainUntil").lt(cutoff).and("archived").ne(true));
+
+        Path archiveDir = Paths.get(backupPath, COLLECTION);
+        Files.createDirectories(archiveDir);
+
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        Path archiveFile = archiveDir.resolve(String.format("%s_%s.ndjson.gz", COLLECTION, timestamp));
+        Path tempFile = archiveDir.resolve(archiveFile.getFileName() + ".tmp");
+
+        // Records are tagged with the run while streaming and only count as archived once the file is in place
+        String runId = new ObjectId().toHexString();
+        long archived = 0;
+        List<Object> batch = new ArrayList<>(ARCHIVE_BATCH_SIZE);
+        try (Stream<Document> stream = mongoTemplate.stream(query, Document.class, COLLECTION);
+             Writer writer = new BufferedWriter(new OutputStreamWriter(
+                     new GZIPOutputStream(Files.newOutputStream(tempFile)), StandardCharsets.UTF_8))) {
+            Iterator<Document> cursor = stream.iterator();
+            while (cursor.hasNext()) {
+                Document record = cursor.next();
+                writer.write(record.toJson(JSON_SETTINGS));
+                writer.write('\n');
+                batch.add(record.get("_id"));
+                if (batch.size() == ARCHIVE_BATCH_SIZE) {
+                    archived += tag(batch, runId);
+                }
+            }
+            if (!batch.isEmpty()) {
+                archived += tag(batch, runId);
+            }
+            renewLease();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+
+        if (archived == 0) {
+            Files.deleteIfExists(tempFile);
+            return null;
+        }
+        Files.move(tempFile, archiveFile, StandardCopyOption.ATOMIC_MOVE);
+
+        // A failed run leaves its tag behind, those records are picked up again by the next run
+        mongoTemplate.updateMulti(Query.query(Criteria.where("archiveRun").is(runId)),
+                AggregationUpdate.update()
+                        .set("archived").toValue(true)
+                        .set("expireAt").toValue(expiry())
+                        .unset("archiveRun"),
+                COLLECTION);
+
+        log.info("Archived {} tracking records to {}", archived, archiveFile);
+        return archiveFile;
+    }
+
+    private int tag(List<Object> batch, String runId) {
+        renewLease();
+        mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(batch)),
+                new Update().set("archiveRun", runId), COLLECTION);
+        int size = batch.size();
+        batch.clear();
+        return size;
+    }
+
+    // A run that outlived its lease may overlap with another node's run, it stops and its file is dropped
+    private void renewLease() {
+        if (!jobLock.tryAcquire(ARCHIVE_JOB, Duration.ofMillis(archiveLockMillis))) {
+            throw new IllegalStateException("Tracking archive lease was taken over by another node");
+        }
+    }
+}
@@ -1,42 +1,62 @@
 package com.document.demo.service.impl;
 
+import com.document.demo.dto.request.TrackingHistoryFilter;
 import com.document.demo.dto.request.TrackingRequest;
+import com.document.demo.dto.response.CursorPageResponse;
 import com.document.demo.exception.ResourceNotFoundException;
 import com.document.demo.models.Tracking;
-import com.document.demo.models.User;
 import com.document.demo.models.enums.TrackingActionType;
 import com.document.demo.models.enums.TrackingEntityType;
+import com.document.demo.models.projection.ActionCount;
 import com.document.demo.models.tracking.DeviceInfo;
 import com.document.demo.repository.TrackingRepository;
+import com.document.demo.security.DeviceInfoFilter;
+import com.document.demo.service.TrackingRetentionService;
 import com.document.demo.service.TrackingService;
+import com.document.demo.utils.AuditEventCompactor;
+import com.mongodb.DBRef;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 
-import jakarta.servlet.http.HttpServletRequest;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class TrackingServiceImpl implements TrackingService {
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final JsonWriterSettings EXPORT_JSON_SETTINGS = JsonWriterSettings.builder()
+            .outputMode(JsonMode.RELAXED)
+            .build();
+
     private final TrackingRepository trackingRepository;
-    private final HttpServletRequest request;
+    private final TrackingWriter trackingWriter;
+    private final TrackingRetentionService trackingRetentionService;
 
     @Override
-    @Transactional
     public Tracking track(TrackingRequest request) {
         try {
             log.info("Creating tracking record for action: {} on entity: {}", 
                 request.getAction(), request.getEntityType());
 
-            DeviceInfo deviceInfo = buildDeviceInfo();
+            DeviceInfo deviceInfo = request.getDeviceInfo() != null
+                ? request.getDeviceInfo()
+                : DeviceInfoFilter.current();
             
             Tracking tracking = Tracking.builder()
                 .actor(request.getActor())
@@ -44,37 +64,22 @@ public class TrackingServiceImpl implements TrackingService {
                 .entityId(request.getEntityId())
                 .action(request.getAction())
                 .description(buildDescription(request))
-                .changes(request.getChanges())
+                .changes(AuditEventCompactor.compactChanges(request.getChanges()))
                 .deviceInfo(deviceInfo)
-                .metadata(request.getMetadata())
+                .metadata(AuditEventCompactor.compactMetadata(request.getMetadata()))
+                .schemaVersion(AuditEventCompactor.SCHEMA_VERSION)
                 .build();
-                
-            return trackingRepository.save(tracking);
+            tracking.setRetainUntil(trackingRetentionService.retainUntil(tracking.getEntityType(), tracking.getTimestamp()));
+
+            // Persisted in the background by the tracking writer
+            trackingWriter.submit(tracking);
+            return tracking;
         } catch (Exception e) {
             log.error("Error creating tracking record: {}", e.getMessage());
             throw new ResourceNotFoundException("Failed to create tracking record");
         }
     }
 
-    private DeviceInfo buildDeviceInfo() {
-        String userAgent = request.getHeader("User-Agent");
-        String ipAddress = getClientIpAddress();
-        
-        return DeviceInfo.builder()
-                .ipAddress(ipAddress)
-                .userAgent(userAgent)
-                .sessionId(request.getSession().getId())
-                .build();
-    }
-
-    private String getClientIpAddress() {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return xForwardedFor.split(",")[0];
-        }
-        return request.getRemoteAddr();
-    }
-
     private String buildDescription(TrackingRequest request) {
         if (request.getDescription() != null) {
             return request.getDescription();
@@ -86,51 +91,86 @@ public class TrackingServiceImpl implements TrackingService {
     }
 
     @Override
-    public List<Tracking> getEntityHistory(TrackingEntityType type, String entityId) {
+    public CursorPageResponse<Tracking> getEntityHistory(TrackingEntityType type, String entityId,
+                                                         String cursor, int size) {
         log.info("Fetching history for entity type: {} with ID: {}", type, entityId);
-        return trackingRepository.findByEntityTypeAndEntityId(type, entityId);
+        return trackingRepository.findHistory(TrackingHistoryFilter.builder()
+                .entityType(type)
+                .entityId(entityId)
+                .build(), cursor, pageSize(size));
     }
 
     @Override
-    public List<Tracking> getUserActivity(User user) {
-        log.info("Fetching activity for user: {}", user.getUsername());
-        return trackingRepository.findByActor(user);
+    public CursorPageResponse<Tracking> getUserActivity(String userId, LocalDateTime start, LocalDateTime end,
+                                                        String cursor, int size) {
+        log.info("Fetching activity for user: {}", userId);
+        return trackingRepository.findHistory(TrackingHistoryFilter.builder()
+                .actorId(userId)
+                .start(start)
+                .end(end)
+                .build(), cursor, pageSize(size));
     }
 
     @Override
-    public List<Tracking> getActivityBetween(LocalDateTime start, LocalDateTime end) {
+    public CursorPageResponse<Tracking> getActivityBetween(LocalDateTime start, LocalDateTime end,
+                                                           String cursor, int size) {
         log.info("Fetching activities between {} and {}", start, end);
-        return trackingRepository.findByTimestampBetween(start, end);
+        return trackingRepository.findHistory(TrackingHistoryFilter.builder()
+                .start(start)
+                .end(end)
+                .build(), cursor, pageSize(size));
     }
 
     @Override
-    public List<Tracking> getRecentActivity(int limit) {
-        return trackingRepository.findAll(
-            PageRequest.of(0, limit, Sort.by("timestamp").descending())
-        ).getContent();
+    public void exportHistory(TrackingHistoryFilter filter, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try (Stream<Document> stream = trackingRepository.streamHistory(filter)) {
+            Iterator<Document> cursor = stream.iterator();
+            while (cursor.hasNext()) {
+                writer.write(toExportRecord(cursor.next()).toJson(EXPORT_JSON_SETTINGS));
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+    }
+
+    // The actor is exported as its id, nothing is looked up per record
+    private static Document toExportRecord(Document record) {
+        Document exported = new Document("trackingId", String.valueOf(record.get("_id")));
+        record.forEach((key, value) -> {
+            if ("actor".equals(key)) {
+                exported.put("actorId", value instanceof DBRef ref ? String.valueOf(ref.getId()) : null);
+            } else if (!"_id".equals(key) && !"_class".equals(key)) {
+                exported.put(key, value);
+            }
+        });
+        return exported;
+    }
+
+    private static int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
     }
 
     @Override
-    public Map<TrackingActionType, Long> getActionStatistics(TrackingEntityType entityType) {
-        List<Tracking> trackings = trackingRepository.findByEntityType(entityType);
-        return trackings.stream()
-                .collect(Collectors.groupingBy(
-                    Tracking::getAction,
-                    Collectors.counting()
-                ));
+    public List<Tracking> getRecentActivity(int limit) {
+        return trackingRepository.findRecent(limit);
     }
 
     @Override
-    @Transactional
-    public void deleteOldRecords(LocalDateTime before) {
-        log.info("Deleting tracking records before: {}", before);
-        trackingRepository.deleteByTimestampBefore(before);
+    public Map<TrackingActionType, Long> getActionStatistics(TrackingEntityType entityType) {
+        Map<TrackingActionType, Long> statistics = new EnumMap<>(TrackingActionType.class);
+        for (ActionCount row : trackingRepository.countActionsByEntityType(entityType)) {
+            if (row.getAction() != null) {
+                statistics.put(row.getAction(), row.getCount());
+            }
+        }
+        return statistics;
     }
 
     @Override
-    @Transactional
-    public void cleanupOldRecords() {
-        LocalDateTime threshold = LocalDateTime.now().minusDays(90);
-        deleteOldRecords(threshold);
+    public long compactLegacyRecords() {
+        long updated = trackingRepository.compactLegacyRecords();
+        log.info("Compacted {} legacy tracking records", updated);
+        return updated;
     }
-} 
\ No newline at end of file
+}
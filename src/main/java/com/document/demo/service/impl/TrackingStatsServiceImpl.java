@@ -0,0 +1,302 @@
+package com.document.demo.service.impl;
+
+import com.document.demo.dto.response.TrackingStatisticsResponse;
+import com.document.demo.exception.BadRequestException;
+import com.document.demo.models.Tracking;
+import com.document.demo.models.TrackingStatsHourly;
+import com.document.demo.models.User;
+import com.document.demo.models.enums.TrackingActionType;
+import com.document.demo.models.enums.TrackingEntityType;
+import com.document.demo.repository.UserRepository;
+import com.document.demo.service.TrackingStatsService;
+import lombok.RequiredArgsConstructor;
+import com.mongodb.DBRef;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class TrackingStatsServiceImpl implements TrackingStatsService {
+    private static final String TRACKING_COLLECTION = "tracking";
+    private static final String STATS_COLLECTION = "tracking_stats_hourly";
+    private static final DateTimeFormatter HOUR_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:00");
+    private static final int TOP_LIMIT = 10;
+
+    private final MongoTemplate mongoTemplate;
+    private final UserRepository userRepository;
+
+    @Override
+    public void recordBatch(List<Tracking> batch) {
+        Map<String, TrackingStatsHourly> deltas = new LinkedHashMap<>();
+        for (Tracking tracking : batch) {
+            if (tracking.getTimestamp() == null) {
+                continue;
+            }
+            LocalDateTime hour = tracking.getTimestamp().truncatedTo(ChronoUnit.HOURS);
+            String statsId = statsId(hour, tracking.getEntityType(), tracking.getAction());
+            TrackingStatsHourly delta = deltas.computeIfAbsent(statsId, key -> TrackingStatsHourly.builder()
+                    .statsId(key)
+                    .hour(hour)
+                    .entityType(tracking.getEntityType())
+                    .action(tracking.getAction())
+                    .build());
+            delta.setCount(delta.getCount() + 1);
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TrackingStatsHourly.class);
+            for (TrackingStatsHourly delta : deltas.values()) {
+                bulk.upsert(
+                        Query.query(Criteria.where("_id").is(delta.getStatsId())),
+                        new Update()
+                                .setOnInsert("hour", delta.getHour())
+                                .setOnInsert("entityType", delta.getEntityType())
+                                .setOnInsert("action", delta.getAction())
+                                .inc("count", delta.getCount())
+                                .set("updatedAt", now));
+            }
+            bulk.execute();
+        } catch (Exception e) {
+            // The rollup can be rebuilt, so it must never fail a tracking write
+            log.error("Error updating hourly tracking statistics", e);
+        }
+    }
+
+    // Rewrites every bucket in place with $merge, readers never see an empty rollup. Buckets of hours
+    // that no longer have records are removed afterwards, live upserts during the run keep theirs
+    @Override
+    public int rebuild() {
+        String timezone = ZoneId.systemDefault().getId();
+        LocalDateTime startedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        Date rebuiltAt = Date.from(startedAt.atZone(ZoneId.systemDefault()).toInstant());
+
+        List<AggregationOperation> operations = List.of(
+                Aggregation.match(Criteria.where("timestamp").ne(null)),
+                context -> new Document("$group", new Document("_id", new Document()
+                        .append("hour", new Document("$dateTrunc", new Document("date", "$timestamp")
+                                .append("unit", "hour")
+                                .append("timezone", timezone)))
+                        .append("entityType", "$entityType")
+                        .append("action", "$action"))
+                        .append("count", new Document("$sum", 1))),
+                // Same _id as statsId(), so live upserts and the rebuild address the same bucket
+                context -> new Document("$project", new Document("_id", new Document("$concat", List.of(
+                        new Document("$dateToString", new Document("format", "%Y-%m-%dT%H:00")
+                                .append("date", "$_id.hour")
+                                .append("timezone", timezone)),
+                        "|", new Document("$ifNull", Arrays.asList("$_id.entityType", "null")),
+                        "|", new Document("$ifNull", Arrays.asList("$_id.action", "null")))))
+                        .append("hour", "$_id.hour")
+                        .append("entityType", "$_id.entityType")
+                        .append("action", "$_id.action")
+                        .append("count", 1)
+                        .append("updatedAt", new Document("$literal", rebuiltAt))),
+                context -> new Document("$merge", new Document("into", STATS_COLLECTION)
+                        .append("on", "_id")
+                        .append("whenMatched", "replace")
+                        .append("whenNotMatched", "insert"))
+        );
+
+        mongoTemplate.aggregate(Aggregation.newAggregation(operations)
+                        .withOptions(AggregationOptions.builder().allowDiskUse(true).skipOutput().build()),
+                TRACKING_COLLECTION, Document.class);
+
+        mongoTemplate.remove(Query.query(new Criteria().orOperator(
+                Criteria.where("updatedAt").lt(startedAt),
+                Criteria.where("updatedAt").exists(false))), TrackingStatsHourly.class);
+
+        int buckets = (int) mongoTemplate.count(new Query(), TrackingStatsHourly.class);
+        log.info("Rebuilt hourly tracking statistics with {} buckets", buckets);
+        return buckets;
+    }
+
+    @Override
+    public TrackingStatisticsResponse getSummary(LocalDateTime start, LocalDateTime end, TrackingEntityType entityType) {
+        if (start == null || end == null || start.isAfter(end)) {
+            throw new BadRequestException("A valid start and end are required");
+        }
+
+        // Hour granularity: the range is widened to whole hours, the rollup can't split one, and the
+        // top lists use the same bounds so their counts agree with the totals. end is exclusive.
+        LocalDateTime from = start.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime until = end.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+
+        TrackingStatisticsResponse response = TrackingStatisticsResponse.builder()
+                .start(from)
+                .end(until)
+                .build();
+        readRollups(response, from, until, entityType);
+        readTopLists(response, from, until, entityType);
+        return response;
+    }
+
+    // Counts by action, entity type and day come from the hourly rollup, so long ranges stay cheap
+    private void readRollups(TrackingStatisticsResponse response, LocalDateTime start, LocalDateTime end,
+                             TrackingEntityType entityType) {
+        Criteria criteria = Criteria.where("hour").gte(start).lt(end);
+        if (entityType != null) {
+            criteria.and("entityType").is(entityType.name());
+        }
+
+        String timezone = ZoneId.systemDefault().getId();
+        AggregationOperation groupByDay = context -> new Document("$group", new Document("_id",
+                new Document("$dateToString", new Document("format", "%Y-%m-%d")
+                        .append("date", "$hour")
+                        .append("timezone", timezone)))
+                .append("count", new Document("$sum", "$count")));
+
+        Document result = mongoTemplate.aggregate(Aggregation.newAggregation(
+                        Aggregation.match(criteria),
+                        Aggregation.facet(Aggregation.group("action").sum("count").as("count"))
+                                .as("byAction")
+                                .and(Aggregation.group("entityType").sum("count").as("count"))
+                                .as("byEntityType")
+                                .and(groupByDay, Aggregation.sort(Sort.Direction.ASC, "_id"))
+                                .as("byDay")),
+                STATS_COLLECTION, Document.class).getUniqueMappedResult();
+
+        Map<TrackingActionType, Long> byAction = new EnumMap<>(TrackingActionType.class);
+        Map<TrackingEntityType, Long> byEntityType = new EnumMap<>(TrackingEntityType.class);
+        Map<String, Long> byDay = new LinkedHashMap<>();
+        long total = 0;
+
+        if (result != null) {
+            for (Document row : result.getList("byAction", Document.class)) {
+                TrackingActionType action = parseEnum(TrackingActionType.class, row.getString("_id"));
+                long count = ((Number) row.get("count")).longValue();
+                if (action != null) {
+                    byAction.merge(action, count, Long::sum);
+                }
+                total += count;
+            }
+            for (Document row : result.getList("byEntityType", Document.class)) {
+                TrackingEntityType type = parseEnum(TrackingEntityType.class, row.getString("_id"));
+                if (type != null) {
+                    byEntityType.merge(type, ((Number) row.get("count")).longValue(), Long::sum);
+                }
+            }
+            for (Document row : result.getList("byDay", Document.class)) {
+                byDay.put(row.getString("_id"), ((Number) row.get("count")).longValue());
+            }
+        }
+
+        response.setByAction(byAction);
+        response.setByEntityType(byEntityType);
+        response.setByDay(byDay);
+        response.setTotal(total);
+    }
+
+    // Top entities and actors need the raw records, both are computed in one $facet
+    private void readTopLists(TrackingStatisticsResponse response, LocalDateTime start, LocalDateTime end,
+                              TrackingEntityType entityType) {
+        Criteria criteria = Criteria.where("timestamp").gte(start).lt(end);
+        if (entityType != null) {
+            criteria.and("entityType").is(entityType.name());
+        }
+
+        AggregationOperation groupByEntity = context -> new Document("$group", new Document("_id",
+                new Document("entityType", "$entityType").append("entityId", "$entityId"))
+                .append("count", new Document("$sum", 1)));
+
+        // Grouped on the whole DBRef, its $id can't be referenced in an expression
+        AggregationOperation groupByActor = context -> new Document("$group", new Document("_id", "$actor")
+                .append("count", new Document("$sum", 1)));
+
+        Document result = mongoTemplate.aggregate(Aggregation.newAggregation(
+                        Aggregation.match(criteria),
+                        Aggregation.facet(groupByEntity,
+                                        Aggregation.sort(Sort.Direction.DESC, "count"),
+                                        Aggregation.limit(TOP_LIMIT))
+                                .as("topEntities")
+                                .and(Aggregation.match(Criteria.where("actor.$id").exists(true)),
+                                        groupByActor,
+                                        Aggregation.sort(Sort.Direction.DESC, "count"),
+                                        Aggregation.limit(TOP_LIMIT))
+                                .as("topActors")),
+                TRACKING_COLLECTION, Document.class).getUniqueMappedResult();
+
+        List<TrackingStatisticsResponse.EntityCount> topEntities = new ArrayList<>();
+        List<TrackingStatisticsResponse.ActorCount> topActors = new ArrayList<>();
+
+        if (result != null) {
+            for (Document row : result.getList("topEntities", Document.class)) {
+                Document id = row.get("_id", Document.class);
+                topEntities.add(TrackingStatisticsResponse.EntityCount.builder()
+                        .entityType(parseEnum(TrackingEntityType.class, id.getString("entityType")))
+                        .entityId(id.getString("entityId"))
+                        .count(((Number) row.get("count")).longValue())
+                        .build());
+            }
+
+            List<Document> actorRows = result.getList("topActors", Document.class);
+            List<String> actorIds = actorRows.stream().map(row -> actorId(row.get("_id"))).toList();
+            Map<String, User> actors = userRepository.findAllById(actorIds).stream()
+                    .collect(Collectors.toMap(User::getUserId, Function.identity()));
+
+            for (Document row : actorRows) {
+                String userId = actorId(row.get("_id"));
+                User actor = actors.get(userId);
+                topActors.add(TrackingStatisticsResponse.ActorCount.builder()
+                        .userId(userId)
+                        .username(actor != null ? actor.getUsername() : null)
+                        .count(((Number) row.get("count")).longValue())
+                        .build());
+            }
+        }
+
+        response.setTopEntities(topEntities);
+        response.setTopActors(topActors);
+    }
+
+    // The grouped DBRef comes back as a DBRef or as its {$ref, $id} document depending on the codec
+    private static String actorId(Object ref) {
+        if (ref instanceof DBRef dbRef) {
+            return String.valueOf(dbRef.getId());
+        }
+        return ref instanceof Document document ? String.valueOf(document.get("$id")) : String.valueOf(ref);
+    }
+
+    private static String statsId(LocalDateTime hour, TrackingEntityType entityType, TrackingActionType action) {
+        return hour.format(HOUR_FORMAT) + "|" + entityType + "|" + action;
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.document.demo.service.impl;
+
+import com.document.demo.models.Tracking;
+import com.document.demo.service.TrackingStatsService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Takes tracking records off the request path: records are queued and a background thread
+// inserts them in batches of up to batch-size, or whatever arrived within flush-interval-ms.
+// Failed batches are retried with backoff. What happens when the queue is full is set by the
+// overflow policy, by default the record is dropped so a slow database never blocks requests.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TrackingWriter {
+    public enum OverflowPolicy {
+        // Insert on the calling thread, nothing is lost but the request waits for the write
+        CALLER_RUNS,
+        // Discard the record and count it
+        DROP
+    }
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final TrackingStatsService trackingStatsService;
+
+    @Value("${tracking.writer.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${tracking.writer.batch-size:200}")
+    private int batchSize;
+
+    @Value("${tracking.writer.flush-interval-ms:1000}")
+    private long flushIntervalMillis;
+
+    @Value("${tracking.writer.overflow-policy:DROP}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${tracking.writer.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${tracking.writer.retry-backoff-ms:200}")
+    private long retryBackoffMillis;
+
+    private final AtomicLong dropped = new AtomicLong();
+    // Records given up on after every retry failed
+    private final AtomicLong failed = new AtomicLong();
+
+    private BlockingQueue<Tracking> queue;
+    private Thread worker;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        worker = new Thread(this::run, "tracking-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public void submit(Tracking tracking) {
+        if (running && queue.offer(tracking)) {
+            return;
+        }
+
+        if (overflowPolicy == OverflowPolicy.DROP) {
+            long total = dropped.incrementAndGet();
+            if (total == 1 || total % 1000 == 0) {
+                log.warn("Tracking queue is full, {} records dropped so far", total);
+            }
+            return;
+        }
+        write(List.of(tracking));
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    private void run() {
+        List<Tracking> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Tracking first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fill(batch);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Waits for more records until the batch is full or the flush interval since the first one is over
+    private void fill(List<Tracking> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                return;
+            }
+            Tracking next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void write(List<Tracking> batch) {
+        // Ids are assigned up front, a retry after a partly applied insert then reports the
+        // records already written as duplicates instead of storing them twice
+        for (Tracking tracking : batch) {
+            if (tracking.getTrackingId() == null) {
+                tracking.setTrackingId(new ObjectId().toHexString());
+            }
+        }
+
+        List<Tracking> pending = batch;
+        for (int attempt = 1; !pending.isEmpty(); attempt++) {
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Tracking.class)
+                        .insert(pending)
+                        .execute();
+                pending = List.of();
+            } catch (BulkOperationException e) {
+                pending = retryable(pending, e);
+                if (!pending.isEmpty() && !backOff(attempt, pending.size(), e)) {
+                    break;
+                }
+            } catch (Exception e) {
+                if (!backOff(attempt, pending.size(), e)) {
+                    break;
+                }
+            }
+        }
+
+        if (pending.isEmpty()) {
+            trackingStatsService.recordBatch(batch);
+            return;
+        }
+        long total = failed.addAndGet(pending.size());
+        log.error("Gave up on {} tracking records, {} failed so far", pending.size(), total);
+
+        Set<Tracking> lost = Collections.newSetFromMap(new IdentityHashMap<>());
+        lost.addAll(pending);
+        trackingStatsService.recordBatch(batch.stream().filter(tracking -> !lost.contains(tracking)).toList());
+    }
+
+    private static List<Tracking> retryable(List<Tracking> pending, BulkOperationException e) {
+        List<Tracking> retry = new ArrayList<>();
+        for (BulkWriteError error : e.getErrors()) {
+            if (error.getCode() != DUPLICATE_KEY) {
+                retry.add(pending.get(error.getIndex()));
+            }
+        }
+        return retry;
+    }
+
+    // Sleeps before the next attempt, false once the attempts are used up or the writer is interrupted
+    private boolean backOff(int attempt, int records, Exception e) {
+        if (attempt >= maxAttempts) {
+            log.error("Error writing {} tracking records after {} attempts: {}", records, attempt, e.getMessage());
+            return false;
+        }
+        log.warn("Error writing {} tracking records, attempt {} of {}: {}", records, attempt, maxAttempts, e.getMessage());
+        try {
+            Thread.sleep(retryBackoffMillis << (attempt - 1));
+            return true;
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Whatever the worker did not get to is written before the context closes
+        List<Tracking> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            log.info("Flushing {} queued tracking records on shutdown", remaining.size());
+            for (int from = 0; from < remaining.size(); from += batchSize) {
+                write(remaining.subList(from, Math.min(from + batchSize, remaining.size())));
+            }
+        }
+    }
+}
@@ -13,9 +13,13 @@ import com.document.demo.models.enums.TrackingActionType;
 import com.document.demo.models.enums.TrackingEntityType;
 import com.document.demo.models.enums.UserRole;
 import com.document.demo.models.enums.UserStatus;
+import com.document.demo.models.reference.UserReference;
 import com.document.demo.models.tracking.ChangeLog;
 import com.document.demo.repository.DepartmentRepository;
+import com.document.demo.repository.DocumentRepository;
 import com.document.demo.repository.UserRepository;
+import com.document.demo.security.TokenVersionService;
+import com.document.demo.security.UserPrincipalCache;
 import com.document.demo.service.S3Service;
 import com.document.demo.service.TrackingService;
 import com.document.demo.service.UserService;
@@ -35,9 +39,12 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static com.document.demo.utils.UpdateFieldUtils.updateField;
 
@@ -49,6 +56,9 @@ public class UserServiceImpl implements UserService{
     private final UserRepository userRepository;
     private final TrackingService trackingService;
     private final DepartmentRepository departmentRepository;
+    private final DocumentRepository documentRepository;
+    private final UserPrincipalCache principalCache;
+    private final TokenVersionService tokenVersionService;
     private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
     @Override
@@ -107,6 +117,8 @@ public class UserServiceImpl implements UserService{
             .build());
             
         userRepository.delete(user);
+        principalCache.evict(user.getUsername());
+        tokenVersionService.revokeAll(user.getUserId());
     }
 
     @Override
@@ -161,12 +173,17 @@ public class UserServiceImpl implements UserService{
             .build());
 
         userRepository.save(user);
+        principalCache.evict(user.getUsername());
+
+        // Sessions opened with the old password are no longer valid
+        tokenVersionService.revokeAll(user.getUserId());
     }
 
     @Override
     @Transactional
     public User updateProfile(String userId, UpdateProfileRequest request) {
         User user = getUserById(userId);
+        String previousUsername = user.getUsername();
 
         Map<String, ChangeLog> changes = new HashMap<>();
         updateField(changes, "username", user.getUsername(), request.getUserName(), user::setUsername);
@@ -194,6 +211,13 @@ public class UserServiceImpl implements UserService{
 
         if (!changes.isEmpty()) {
             User savedUser = userRepository.save(user);
+            principalCache.evict(previousUsername);
+            principalCache.evict(savedUser.getUsername());
+
+            // Keep the creator copies embedded in documents in sync
+            if (changes.containsKey("username") || changes.containsKey("fullName")) {
+                documentRepository.refreshCreatorReferences(UserReference.from(savedUser));
+            }
 
             // Track user update
             trackingService.track(TrackingRequest.builder()
@@ -225,6 +249,10 @@ public class UserServiceImpl implements UserService{
         updateField(changes, "status", user.getStatus(), status, user::setStatus);
 
         User savedUser = userRepository.save(user);
+        principalCache.evict(savedUser.getUsername());
+        if (status != UserStatus.ACTIVE) {
+            tokenVersionService.revokeAll(savedUser.getUserId());
+        }
 
         // Track user status update
         trackingService.track(TrackingRequest.builder()
@@ -246,6 +274,9 @@ public class UserServiceImpl implements UserService{
         updateField(changes, "role", user.getRole(), role, user::setRole);
 
         User savedUser = userRepository.save(user);
+        principalCache.evict(savedUser.getUsername());
+        // Tokens carry the role claim, they are reissued with the new role
+        tokenVersionService.revokeAll(savedUser.getUserId());
 
         // Track user role update
         trackingService.track(TrackingRequest.builder()
@@ -274,6 +305,21 @@ public class UserServiceImpl implements UserService{
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
     }
 
+    @Override
+    public List<User> getUsersByIds(List<String> ids) {
+        Map<String, User> users = userRepository.findAllById(new HashSet<>(ids)).stream()
+                .collect(Collectors.toMap(User::getUserId, Function.identity()));
+        return ids.stream()
+                .map(id -> {
+                    User user = users.get(id);
+                    if (user == null) {
+                        throw new ResourceNotFoundException("User not found with id: " + id);
+                    }
+                    return user;
+                })
+                .toList();
+    }
+
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         return userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
@@ -286,6 +332,12 @@ public class UserServiceImpl implements UserService{
             return null;
         }
 
+        // Reuse the principal the JWT filter already loaded for this request. The instance is shared
+        // through UserPrincipalCache, callers get a copy they can modify
+        if (authentication.getPrincipal() instanceof User user) {
+            return user.toBuilder().build();
+        }
+
         String username = authentication.getName();
         return findByUsername(username);
     }
@@ -0,0 +1,159 @@
+package com.document.demo.utils;
+
+import com.document.demo.models.tracking.ChangeLog;
+import com.mongodb.DBRef;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.convert.LazyLoadingProxy;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// Shrinks audit payloads before they are stored: entities become their id, long strings are cut
+// and collections are capped. Records written in this format carry SCHEMA_VERSION.
+public class AuditEventCompactor {
+    public static final int SCHEMA_VERSION = 2;
+
+    static final int MAX_VALUE_LENGTH = 256;
+    static final int MAX_COLLECTION_SIZE = 20;
+
+    private static final Map<Class<?>, Optional<Field>> ID_FIELDS = new ConcurrentHashMap<>();
+
+    public static Map<String, ChangeLog> compactChanges(Map<String, ChangeLog> changes) {
+        if (changes == null) {
+            return null;
+        }
+
+        Map<String, ChangeLog> compacted = new LinkedHashMap<>();
+        changes.forEach((field, change) -> compacted.put(field, change == null ? null : ChangeLog.builder()
+                .fieldName(change.getFieldName() != null ? change.getFieldName() : field)
+                .oldValue(compactValue(change.getOldValue()))
+                .newValue(compactValue(change.getNewValue()))
+                .changeTime(change.getChangeTime())
+                .build()));
+        return compacted;
+    }
+
+    public static Map<String, Object> compactMetadata(Map<String, Object> metadata) {
+        if (metadata == null) {
+            return null;
+        }
+
+        Map<String, Object> compacted = new LinkedHashMap<>();
+        metadata.forEach((key, value) -> compacted.put(key, compactValue(value)));
+        return compacted;
+    }
+
+    // Compacts a value of a live object graph, mapped entities are replaced by their id
+    public static Object compactValue(Object value) {
+        if (value == null || isScalar(value)) {
+            return value;
+        }
+        if (value instanceof String text) {
+            return truncate(text);
+        }
+        if (value instanceof LazyLoadingProxy proxy) {
+            DBRef ref = proxy.toDBRef();
+            return ref != null ? String.valueOf(ref.getId()) : null;
+        }
+        if (value instanceof Collection<?> collection) {
+            return compactCollection(collection, AuditEventCompactor::compactValue);
+        }
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> compacted = new LinkedHashMap<>();
+            map.forEach((key, item) -> compacted.put(String.valueOf(key), compactValue(item)));
+            return compacted;
+        }
+
+        Optional<Field> idField = idFieldOf(ClassUtils.getUserClass(value));
+        if (idField.isPresent()) {
+            Object id = ReflectionUtils.getField(idField.get(), value);
+            return id != null ? String.valueOf(id) : null;
+        }
+        return truncate(String.valueOf(value));
+    }
+
+    // Compacts a value read back from the tracking collection, used to rewrite legacy records
+    public static Object compactStoredValue(Object value) {
+        if (value == null || isScalar(value)) {
+            return value;
+        }
+        if (value instanceof String text) {
+            return truncate(text);
+        }
+        if (value instanceof DBRef ref) {
+            return String.valueOf(ref.getId());
+        }
+        if (value instanceof Collection<?> collection) {
+            return compactCollection(collection, AuditEventCompactor::compactStoredValue);
+        }
+        if (value instanceof Map<?, ?> map) {
+            // An embedded copy of an entity is reduced to its id
+            if (map.containsKey("_id")) {
+                return String.valueOf(map.get("_id"));
+            }
+            Map<String, Object> compacted = new LinkedHashMap<>();
+            map.forEach((key, item) -> {
+                if (!"_class".equals(key)) {
+                    compacted.put(String.valueOf(key), compactStoredValue(item));
+                }
+            });
+            return compacted;
+        }
+        return truncate(String.valueOf(value));
+    }
+
+    private static List<Object> compactCollection(Collection<?> collection,
+                                                  Function<Object, Object> compactor) {
+        List<Object> compacted = new ArrayList<>(Math.min(collection.size(), MAX_COLLECTION_SIZE));
+        for (Object item : collection) {
+            if (compacted.size() == MAX_COLLECTION_SIZE) {
+                break;
+            }
+            compacted.add(compactor.apply(item));
+        }
+        return compacted;
+    }
+
+    private static boolean isScalar(Object value) {
+        return value instanceof Number
+                || value instanceof Boolean
+                || value instanceof Enum<?>
+                || value instanceof Temporal
+                || value instanceof Date;
+    }
+
+    private static String truncate(String text) {
+        if (text.length() <= MAX_VALUE_LENGTH) {
+            return text;
+        }
+        return text.substring(0, MAX_VALUE_LENGTH) + "...(+" + (text.length() - MAX_VALUE_LENGTH) + " chars)";
+    }
+
+    private static Optional<Field> idFieldOf(Class<?> type) {
+        return ID_FIELDS.computeIfAbsent(type, clazz -> {
+            if (!clazz.isAnnotationPresent(Document.class)) {
+                return Optional.empty();
+            }
+            Field[] found = new Field[1];
+            ReflectionUtils.doWithFields(clazz, field -> {
+                if (found[0] == null && field.isAnnotationPresent(Id.class)) {
+                    ReflectionUtils.makeAccessible(field);
+                    found[0] = field;
+                }
+            });
+            return Optional.ofNullable(found[0]);
+        });
+    }
+}
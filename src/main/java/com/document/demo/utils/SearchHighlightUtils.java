@@ -0,0 +1,91 @@
+package com.document.demo.utils;
+
+import org.springframework.web.util.HtmlUtils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+public class SearchHighlightUtils {
+    private static final int SNIPPET_RADIUS = 80;
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private SearchHighlightUtils() {
+    }
+
+    // Returns a short fragment around the first matched term, with every term wrapped in <em>.
+    // Terms match regardless of case and accents, the fragment itself is HTML-escaped.
+    public static String highlight(String text, String keyword) {
+        if (text == null || text.isEmpty() || keyword == null || keyword.isBlank()) {
+            return null;
+        }
+        List<String> terms = VietnameseTextUtils.tokenize(keyword);
+        if (terms.isEmpty()) {
+            return null;
+        }
+
+        // Terms are searched in the folded text, offsets[i] is the position in text of folded char i
+        StringBuilder folded = new StringBuilder(text.length());
+        int[] offsets = new int[text.length() * 2];
+        for (int i = 0; i < text.length(); i++) {
+            String chars = fold(text.charAt(i));
+            for (int j = 0; j < chars.length(); j++) {
+                if (folded.length() == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                }
+                offsets[folded.length()] = i;
+                folded.append(chars.charAt(j));
+            }
+        }
+
+        Pattern pattern = Pattern.compile(terms.stream().map(Pattern::quote).collect(Collectors.joining("|")));
+        Matcher matcher = pattern.matcher(folded);
+        List<int[]> matches = new ArrayList<>();
+        while (matcher.find()) {
+            matches.add(new int[]{offsets[matcher.start()], offsets[matcher.end() - 1] + 1});
+        }
+        if (matches.isEmpty()) {
+            return null;
+        }
+
+        int start = Math.max(0, matches.get(0)[0] - SNIPPET_RADIUS);
+        int end = Math.min(text.length(), matches.get(0)[1] + SNIPPET_RADIUS);
+
+        StringBuilder highlighted = new StringBuilder();
+        int position = start;
+        for (int[] match : matches) {
+            if (match[0] < position) {
+                continue;
+            }
+            if (match[1] > end) {
+                break;
+            }
+            highlighted.append(HtmlUtils.htmlEscape(text.substring(position, match[0])))
+                    .append("<em>")
+                    .append(HtmlUtils.htmlEscape(text.substring(match[0], match[1])))
+                    .append("</em>");
+            position = match[1];
+        }
+        highlighted.append(HtmlUtils.htmlEscape(text.substring(position, end)));
+
+        return (start > 0 ? "..." : "") + highlighted + (end < text.length() ? "..." : "");
+    }
+
+    // Same folding as VietnameseTextUtils.normalize, one source char at a time so offsets can be kept
+    private static String fold(char c) {
+        if (c == 'đ' || c == 'Đ') {
+            return "d";
+        }
+        String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+        String stripped = COMBINING_MARKS.matcher(decomposed).replaceAll("");
+        StringBuilder lower = new StringBuilder(stripped.length());
+        for (int i = 0; i < stripped.length(); i++) {
+            lower.append(Character.toLowerCase(stripped.charAt(i)));
+        }
+        return lower.toString();
+    }
+}
@@ -0,0 +1,43 @@
+package com.document.demo.utils;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+public class VietnameseTextUtils {
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern TOKEN_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private VietnameseTextUtils() {
+    }
+
+    // "Thông báo Đào tạo" -> "thong bao dao tao"
+    public static String normalize(String text) {
+        if (text == null) {
+            return null;
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String folded = COMBINING_MARKS.matcher(decomposed).replaceAll("")
+                .replace('đ', 'd')
+                .replace('Đ', 'D')
+                .toLowerCase(Locale.ROOT);
+        return WHITESPACE.matcher(folded).replaceAll(" ").trim();
+    }
+
+    public static List<String> tokenize(String... values) {
+        Set<String> tokens = new LinkedHashSet<>();
+        Arrays.stream(values)
+                .filter(Objects::nonNull)
+                .map(VietnameseTextUtils::normalize)
+                .flatMap(TOKEN_SEPARATORS::splitAsStream)
+                .filter(token -> !token.isEmpty())
+                .forEach(tokens::add);
+        return List.copyOf(tokens);
+    }
+}
@@ -0,0 +1,99 @@
+package com.document.demo.benchmark;
+
+import com.document.demo.models.projection.AgencyUnitCount;
+import com.document.demo.repository.DocumentRepository;
+import com.document.demo.service.impl.AgencyUnitSuggestIndex;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static com.document.demo.utils.VietnameseTextUtils.normalize;
+
+// Agency unit suggestions from the per-node top-k trie against sorting every matching value,
+// which is what an empty or one-letter prefix used to cost. Run main() with the test classpath.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AgencyUnitSuggestBenchmark {
+    private static final String[] WORDS = {
+            "Phòng", "Ban", "Khoa", "Trung tâm", "Viện", "Đào tạo", "Tài chính", "Hành chính",
+            "Tổng hợp", "Kế hoạch", "Công nghệ", "Thông tin", "Nhân sự", "Pháp chế", "Quản trị"
+    };
+    private static final int LIMIT = 10;
+
+    @Param({"1000", "50000"})
+    private int values;
+
+    @Param({"", "p", "phong dao"})
+    private String prefix;
+
+    private AgencyUnitSuggestIndex index;
+    private Map<String, Long> frequencies;
+    private Map<String, String> normalizedValues;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        List<AgencyUnitCount> counts = new ArrayList<>(values);
+        frequencies = new HashMap<>();
+        normalizedValues = new HashMap<>();
+        for (int i = 0; i < values; i++) {
+            String value = WORDS[random.nextInt(5)] + " " + WORDS[5 + random.nextInt(WORDS.length - 5)] + " " + i;
+            long count = 1 + random.nextInt(1000);
+            counts.add(new AgencyUnitCount(value, count));
+            frequencies.put(value, count);
+            normalizedValues.put(value, " " + normalize(value));
+        }
+
+        DocumentRepository repository = Mockito.mock(DocumentRepository.class);
+        Mockito.when(repository.countByAgencyUnit()).thenReturn(counts);
+        index = new AgencyUnitSuggestIndex(repository);
+        index.rebuild();
+    }
+
+    @Benchmark
+    public List<String> topKTrie() {
+        return index.suggest(prefix, LIMIT);
+    }
+
+    @Benchmark
+    public List<String> sortAllCandidates() {
+        String wordPrefix = " " + normalize(prefix);
+        return frequencies.keySet().stream()
+                .filter(value -> normalizedValues.get(value).contains(wordPrefix))
+                .sorted(Comparator.<String>comparingLong(frequencies::get).reversed()
+                        .thenComparing(Comparator.naturalOrder()))
+                .limit(LIMIT)
+                .toList();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AgencyUnitSuggestBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,159 @@
+package com.document.demo.benchmark;
+
+import com.document.demo.dto.request.FilterRequest;
+import com.document.demo.models.Documents;
+import com.document.demo.models.enums.DocumentStatus;
+import com.document.demo.models.enums.DocumentType;
+import com.document.demo.repository.DocumentRepositoryCustomImpl;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.testcontainers.containers.MongoDBContainer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// /filter with the query built from the supplied predicates against the former @Query, which
+// wrapped every optional filter in an $or with an $expr null check.
+// Run main() with the test classpath, Docker is needed for the MongoDB container.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DocumentFilterBenchmark {
+    private static final String[] AGENCY_UNITS = {
+            "Phòng Đào tạo", "Phòng Tài chính", "Ban Giám hiệu", "Khoa Công nghệ thông tin", "Phòng Hành chính"
+    };
+
+    @Param({"50000"})
+    private int documents;
+
+    @Param({"", "Đào tạo"})
+    private String agencyUnit;
+
+    private MongoDBContainer mongo;
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private DocumentRepositoryCustomImpl repository;
+
+    private FilterRequest request;
+    private Pageable pageable;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mongo = new MongoDBContainer("mongo:7.0");
+        mongo.start();
+        client = MongoClients.create(mongo.getConnectionString());
+        mongoTemplate = new MongoTemplate(client, "benchmark");
+        repository = new DocumentRepositoryCustomImpl(mongoTemplate);
+
+        IndexOperations indexOps = mongoTemplate.indexOps(Documents.class);
+        new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(Documents.class)
+                .forEach(indexOps::ensureIndex);
+
+        DocumentType[] types = DocumentType.values();
+        DocumentStatus[] statuses = DocumentStatus.values();
+        List<Documents> batch = new ArrayList<>();
+        for (int i = 0; i < documents; i++) {
+            batch.add(Documents.builder()
+                    .number(String.format("CV-%06d", i))
+                    .title("Công văn số " + i)
+                    .content("Nội dung")
+                    .agencyUnit(AGENCY_UNITS[i % AGENCY_UNITS.length])
+                    .type(types[i % types.length])
+                    .status(statuses[i % statuses.length])
+                    .attachment("https://example.com/" + i + ".pdf")
+                    .receivedDate(LocalDateTime.now().minusHours(i))
+                    .build());
+            if (batch.size() == 1000) {
+                mongoTemplate.insert(batch, Documents.class);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            mongoTemplate.insert(batch, Documents.class);
+        }
+        repository.backfillSearchFields();
+
+        request = FilterRequest.builder()
+                .type(DocumentType.INCOMING)
+                .status(DocumentStatus.PENDING)
+                .agencyUnit(agencyUnit)
+                .build();
+        pageable = PageRequest.of(0, 7);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        mongo.stop();
+    }
+
+    @Benchmark
+    public Page<Documents> suppliedPredicatesOnly() {
+        return repository.filterDocuments(request, pageable);
+    }
+
+    @Benchmark
+    public Page<Documents> legacyNullCheckQuery() {
+        Document filter = new Document("$and", List.of(
+                new Document("type", request.getType().name()),
+                new Document("agencyUnit", new Document("$regex", request.getAgencyUnit()).append("$options", "i")),
+                optional("status", request.getStatus() != null ? request.getStatus().name() : null),
+                optional("urgencyLevel", null),
+                optional("secretLevel", null),
+                new Document("$or", List.of(
+                        new Document("receivedDate", new Document("$gte", null).append("$lte", null)),
+                        new Document("$and", List.of(isNull(null), isNull(null)))))));
+
+        Query query = new BasicQuery(filter).with(pageable);
+        List<Documents> content = mongoTemplate.find(query, Documents.class);
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> mongoTemplate.count(Query.of(query).limit(-1).skip(-1), Documents.class));
+    }
+
+    private static Document optional(String field, Object value) {
+        return new Document("$or", List.of(new Document(field, value), isNull(value)));
+    }
+
+    private static Document isNull(Object value) {
+        return new Document("$expr", new Document("$eq", Arrays.asList(value, null)));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DocumentFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,134 @@
+package com.document.demo.benchmark;
+
+import com.document.demo.models.Documents;
+import com.document.demo.models.enums.DocumentType;
+import com.document.demo.repository.DocumentRepositoryCustomImpl;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.testcontainers.containers.MongoDBContainer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Keyword search over a broad result set: the aggregation that pages and counts in MongoDB
+// against loading every match and slicing it in memory, which is what searchDocuments used to do.
+// Run main() from the IDE or with the test classpath, Docker is needed for the MongoDB container.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DocumentSearchBenchmark {
+    private static final String KEYWORD = "Báo cáo";
+    private static final int CONTENT_SIZE = 8 * 1024;
+
+    @Param({"20000"})
+    private int documents;
+
+    @Param({"20"})
+    private int pageSize;
+
+    private MongoDBContainer mongo;
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private DocumentRepositoryCustomImpl repository;
+
+    private final LocalDateTime start = LocalDateTime.now().minusYears(1);
+    private final LocalDateTime end = LocalDateTime.now().plusDays(1);
+    private Pageable pageable;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mongo = new MongoDBContainer("mongo:7.0");
+        mongo.start();
+        client = MongoClients.create(mongo.getConnectionString());
+        mongoTemplate = new MongoTemplate(client, "benchmark");
+        repository = new DocumentRepositoryCustomImpl(mongoTemplate);
+
+        IndexOperations indexOps = mongoTemplate.indexOps(Documents.class);
+        new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(Documents.class)
+                .forEach(indexOps::ensureIndex);
+
+        String content = "Nội dung văn bản ".repeat(CONTENT_SIZE / 17);
+        List<Documents> batch = new ArrayList<>();
+        for (int i = 0; i < documents; i++) {
+            batch.add(Documents.builder()
+                    .number(String.format("CV-%06d", i))
+                    .title("Báo cáo tổng kết công tác số " + i)
+                    .content(content)
+                    .agencyUnit("Phòng Đào tạo")
+                    .type(DocumentType.values()[i % DocumentType.values().length])
+                    .attachment("https://example.com/" + i + ".pdf")
+                    .createdAt(LocalDateTime.now().minusMinutes(i))
+                    .build());
+            if (batch.size() == 1000) {
+                mongoTemplate.insert(batch, Documents.class);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            mongoTemplate.insert(batch, Documents.class);
+        }
+        repository.backfillSearchFields();
+
+        pageable = PageRequest.of(10, pageSize, Sort.by(Sort.Direction.DESC, "createdAt"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        mongo.stop();
+    }
+
+    @Benchmark
+    public Page<Documents> pagedInDatabase() {
+        return repository.searchDocumentsWithCreator(KEYWORD, start, end, null, pageable);
+    }
+
+    @Benchmark
+    public Page<Documents> loadAllThenSlice() {
+        Query query = Query.query(Criteria.where("titleNorm").regex("^bao cao"))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt"));
+        List<Documents> all = mongoTemplate.find(query, Documents.class);
+
+        int from = (int) Math.min(pageable.getOffset(), all.size());
+        int to = Math.min(from + pageable.getPageSize(), all.size());
+        return new PageImpl<>(all.subList(from, to), pageable, all.size());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DocumentSearchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
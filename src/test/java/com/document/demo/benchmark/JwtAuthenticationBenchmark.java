@@ -0,0 +1,146 @@
+package com.document.demo.benchmark;
+
+import com.document.demo.models.User;
+import com.document.demo.models.enums.UserRole;
+import com.document.demo.models.enums.UserStatus;
+import com.document.demo.security.JwtAuthenticationFilter;
+import com.document.demo.security.JwtTokenProvider;
+import com.document.demo.security.TokenDenylistService;
+import com.document.demo.security.TokenVersionService;
+import com.document.demo.security.UserPrincipalCache;
+import com.document.demo.service.UserService;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.FilterChain;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+
+// Requests per second on one core through JwtAuthenticationFilter, with the verified-claims cache
+// against verifying the signature on every request, and the former validate-then-parse path.
+// Redis and MongoDB are mocked, only the token handling is measured. Run main() with the test classpath.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(1)
+@Fork(1)
+public class JwtAuthenticationBenchmark {
+    private JwtTokenProvider cachedProvider;
+    private JwtTokenProvider uncachedProvider;
+    private JwtAuthenticationFilter cachedFilter;
+    private JwtAuthenticationFilter uncachedFilter;
+
+    private String cachedToken;
+    private String uncachedToken;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        User user = User.builder()
+                .userId("6650f0c2a1b2c3d4e5f60718")
+                .username("benchmark")
+                .password("secret")
+                .email("benchmark@example.com")
+                .fullName("Benchmark")
+                .role(UserRole.USER)
+                .status(UserStatus.ACTIVE)
+                .build();
+
+        UserService userService = Mockito.mock(UserService.class);
+        Mockito.when(userService.loadUserByUsername(anyString())).thenReturn(user);
+        TokenVersionService tokenVersionService = Mockito.mock(TokenVersionService.class);
+        Mockito.when(tokenVersionService.storedVersion(anyString())).thenReturn(0L);
+        Mockito.when(tokenVersionService.isCurrent(anyString(), anyLong())).thenReturn(true);
+
+        cachedProvider = provider(userService, tokenVersionService, 60_000);
+        uncachedProvider = provider(userService, tokenVersionService, 0);
+        cachedToken = cachedProvider.generateToken(user);
+        uncachedToken = uncachedProvider.generateToken(user);
+
+        UserPrincipalCache principalCache = new UserPrincipalCache(Mockito.mock(StringRedisTemplate.class));
+        ReflectionTestUtils.setField(principalCache, "maxSize", 10_000);
+        ReflectionTestUtils.setField(principalCache, "ttlMillis", 60_000L);
+
+        cachedFilter = new JwtAuthenticationFilter(cachedProvider, userService, principalCache);
+        uncachedFilter = new JwtAuthenticationFilter(uncachedProvider, userService, principalCache);
+    }
+
+    private static JwtTokenProvider provider(UserService userService, TokenVersionService tokenVersionService,
+                                             long verifiedCacheTtlMillis) {
+        JwtTokenProvider provider = new JwtTokenProvider(
+                userService, tokenVersionService, Mockito.mock(TokenDenylistService.class));
+        ReflectionTestUtils.setField(provider, "jwtExpiration", 3_600_000);
+        ReflectionTestUtils.setField(provider, "jwtRefreshExpiration", 86_400_000);
+        ReflectionTestUtils.setField(provider, "verifiedCacheMaxSize", 10_000);
+        ReflectionTestUtils.setField(provider, "verifiedCacheTtlMillis", verifiedCacheTtlMillis);
+        return provider;
+    }
+
+    @Benchmark
+    public Claims verifiedClaimsCache() {
+        return cachedProvider.getValidClaims(cachedToken);
+    }
+
+    @Benchmark
+    public Claims verifyEveryRequest() {
+        return uncachedProvider.getValidClaims(uncachedToken);
+    }
+
+    @Benchmark
+    public String validateThenParse() {
+        // What the filter did before getValidClaims: two signature checks per request
+        return uncachedProvider.validateToken(uncachedToken) ? uncachedProvider.getUsernameFromToken(uncachedToken) : null;
+    }
+
+    @Benchmark
+    public Object filterWithCache() throws Exception {
+        return filter(cachedFilter, cachedToken);
+    }
+
+    @Benchmark
+    public Object filterWithoutCache() throws Exception {
+        return filter(uncachedFilter, uncachedToken);
+    }
+
+    private static Object filter(JwtAuthenticationFilter filter, String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/documents");
+        request.addHeader("Authorization", "Bearer " + token);
+        FilterChain chain = new MockFilterChain();
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthenticationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
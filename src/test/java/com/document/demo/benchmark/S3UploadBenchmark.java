@@ -0,0 +1,128 @@
+package com.document.demo.benchmark;
+
+import com.document.demo.service.impl.S3MultipartUploader;
+import com.document.demo.service.impl.S3ServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.MinIOContainer;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import java.net.URI;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Latency of one attachment upload: uploadFile as it is now, a single PUT, against the former path
+// that listed every folder segment and put a marker object for a missing one before the PUT.
+// Run main() with the test classpath, Docker is needed for the MinIO container.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class S3UploadBenchmark {
+    private static final String BUCKET = "benchmark";
+    private static final String FOLDER = "documents/pdf";
+
+    @Param({"65536", "1048576"})
+    private int fileSize;
+
+    private MinIOContainer minio;
+    private S3Client s3Client;
+    private S3ServiceImpl s3Service;
+    private MockMultipartFile file;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        minio = new MinIOContainer("minio/minio:RELEASE.2024-01-16T16-07-38Z");
+        minio.start();
+        s3Client = S3Client.builder()
+                .region(Region.US_EAST_1)
+                .endpointOverride(URI.create(minio.getS3URL()))
+                .credentialsProvider(StaticCredentialsProvider.create(
+                        AwsBasicCredentials.create(minio.getUserName(), minio.getPassword())))
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+                .build();
+        s3Client.createBucket(builder -> builder.bucket(BUCKET));
+
+        // Below the multipart threshold, both sides do one PUT for the bytes
+        S3MultipartUploader multipartUploader = new S3MultipartUploader(s3Client);
+        ReflectionTestUtils.setField(multipartUploader, "threshold", Long.MAX_VALUE);
+        s3Service = new S3ServiceImpl(s3Client, multipartUploader, null);
+        ReflectionTestUtils.setField(s3Service, "bucketName", BUCKET);
+        ReflectionTestUtils.setField(s3Service, "region", "us-east-1");
+
+        byte[] content = new byte[fileSize];
+        new Random(42).nextBytes(content);
+        file = new MockMultipartFile("file", "report.pdf", "application/pdf", content);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        s3Client.close();
+        minio.stop();
+    }
+
+    @Benchmark
+    public String uploadFile() {
+        return s3Service.uploadFile(file);
+    }
+
+    @Benchmark
+    public String folderProbingThenUpload() throws Exception {
+        // What uploadFile did before: one listObjectsV2 per path segment, a marker PUT when empty
+        String currentPath = "";
+        for (String folder : FOLDER.split("/")) {
+            currentPath = currentPath.isEmpty() ? folder : currentPath + "/" + folder;
+            boolean exists = s3Client.listObjectsV2(ListObjectsV2Request.builder()
+                    .bucket(BUCKET)
+                    .prefix(currentPath + "/")
+                    .maxKeys(1)
+                    .build()).hasContents();
+            if (!exists) {
+                s3Client.putObject(PutObjectRequest.builder()
+                        .bucket(BUCKET)
+                        .key(currentPath + "/")
+                        .build(), RequestBody.empty());
+            }
+        }
+
+        String key = FOLDER + "/" + UUID.randomUUID() + "_" + file.getOriginalFilename();
+        s3Client.putObject(PutObjectRequest.builder()
+                .bucket(BUCKET)
+                .key(key)
+                .contentType(file.getContentType())
+                .build(), RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
+        return key;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(S3UploadBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
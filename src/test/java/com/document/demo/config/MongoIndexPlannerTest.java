@@ -0,0 +1,353 @@
+package com.document.demo.config;
+
+import com.document.demo.models.User;
+import com.document.demo.models.enums.DocumentStatus;
+import com.document.demo.models.enums.DocumentType;
+import com.document.demo.models.enums.UrgencyLevel;
+import com.document.demo.repository.DocumentRepository;
+import com.mongodb.DBRef;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexOptions;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs the repositories' hot queries through explain() and checks the planner picks the
+// compound index declared for them instead of a collection scan. Every DocumentRepository method
+// is called once with the profiler on, and each command it sent must plan without COLLSCAN or SORT.
+@DataMongoTest
+@Testcontainers
+@Import(MongoIndexConfig.class)
+class MongoIndexPlannerTest {
+    private static final int RECORDS = 500;
+
+    // DocumentRepository methods with a case below
+    private static final Set<String> PLANNED_METHODS = Set.of(
+            "findByNumber", "findByCreateBy", "findByStatus", "findByUrgencyLevel", "findByIssueDateBetween",
+            "existsByNumber", "findByCreatedAtBetween", "findByTypeOrderByCreatedAtDesc",
+            "findAllByOrderByCreatedAtDesc", "findByType", "findByTypeAndKeyword", "findByTypeAndStatus",
+            "countByType", "countByTypeAndStatus", "countByStatusForType", "suggestAgencyUnits",
+            "countByTypeAndDateRange", "countByDateRange");
+    // Aggregations over the whole collection, a collection scan is what they are meant to do
+    private static final Set<String> FULL_SCAN_METHODS = Set.of(
+            "countByTypeStatusUrgencyAndSecretLevel", "countByAgencyUnit");
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoIndexConfig mongoIndexConfig;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    private final List<ObjectId> users = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.getDb().drop();
+        mongoIndexConfig.ensureIndexes();
+
+        for (int i = 0; i < 20; i++) {
+            users.add(new ObjectId());
+        }
+
+        List<Document> documents = new ArrayList<>();
+        List<Document> tracking = new ArrayList<>();
+        List<Document> notifications = new ArrayList<>();
+        for (int i = 0; i < RECORDS; i++) {
+            Date timestamp = new Date(System.currentTimeMillis() - i * 60_000L);
+            DBRef user = new DBRef("users", users.get(i % users.size()));
+
+            documents.add(new Document("number", "CV-" + i)
+                    .append("title", "Công văn " + i)
+                    .append("type", i % 2 == 0 ? "INCOMING" : "OUTGOING")
+                    .append("status", i % 3 == 0 ? "PENDING" : "COMPLETED")
+                    .append("urgencyLevel", i % 5 == 0 ? "HIGH" : "NORMAL")
+                    .append("agencyUnit", "Phòng Đào tạo " + (i % 10))
+                    .append("agencyUnitNorm", "phong dao tao " + (i % 10))
+                    .append("createBy", user)
+                    .append("issueDate", timestamp)
+                    .append("createdAt", timestamp));
+            tracking.add(new Document("entityType", "DOCUMENT")
+                    .append("entityId", "doc-" + (i % 50))
+                    .append("actor", user)
+                    .append("action", "VIEW")
+                    .append("timestamp", timestamp));
+            notifications.add(new Document("message", "n" + i)
+                    .append("user", user)
+                    .append("read", i % 4 == 0)
+                    .append("timestamp", timestamp));
+        }
+        mongoTemplate.getCollection("documents").insertMany(documents);
+        mongoTemplate.getCollection("tracking").insertMany(tracking);
+        mongoTemplate.getCollection("notifications").insertMany(notifications);
+    }
+
+    @Test
+    void documentListByTypeAndStatusUsesCompoundIndex() {
+        assertThat(winningIndexes("documents",
+                new Document("type", "INCOMING").append("status", "PENDING"),
+                new Document("createdAt", -1)))
+                .containsExactly("type_status_createdAt");
+    }
+
+    @Test
+    void everyDocumentRepositoryMethodHasAPlanCase() {
+        Set<String> declared = Arrays.stream(DocumentRepository.class.getDeclaredMethods())
+                .map(Method::getName)
+                .collect(Collectors.toSet());
+        assertThat(declared).containsExactlyInAnyOrderElementsOf(
+                Stream.concat(PLANNED_METHODS.stream(), FULL_SCAN_METHODS.stream()).toList());
+    }
+
+    @Test
+    void findByNumberIsIndexed() {
+        assertIndexed(() -> documentRepository.findByNumber("CV-7"));
+    }
+
+    @Test
+    void existsByNumberIsIndexed() {
+        assertIndexed(() -> documentRepository.existsByNumber("CV-7"));
+    }
+
+    @Test
+    void findByCreateByIsIndexed() {
+        User creator = User.builder().userId(users.get(3).toHexString()).username("creator").build();
+        assertIndexed(() -> documentRepository.findByCreateBy(creator));
+    }
+
+    @Test
+    void findByStatusIsIndexed() {
+        assertIndexed(() -> documentRepository.findByStatus(DocumentStatus.PENDING));
+        assertIndexed(() -> documentRepository.findByStatus(DocumentStatus.PENDING, newestFirst()));
+    }
+
+    @Test
+    void findByUrgencyLevelIsIndexed() {
+        assertIndexed(() -> documentRepository.findByUrgencyLevel(UrgencyLevel.HIGH));
+    }
+
+    @Test
+    void findByIssueDateBetweenIsIndexed() {
+        assertIndexed(() -> documentRepository.findByIssueDateBetween(
+                LocalDateTime.now().minusHours(2), LocalDateTime.now()));
+    }
+
+    @Test
+    void findByCreatedAtBetweenIsIndexed() {
+        assertIndexed(() -> documentRepository.findByCreatedAtBetween(
+                LocalDateTime.now().minusHours(2), LocalDateTime.now()));
+    }
+
+    @Test
+    void findByTypeOrderByCreatedAtDescIsIndexed() {
+        assertIndexed(() -> documentRepository.findByTypeOrderByCreatedAtDesc(DocumentType.INCOMING, PageRequest.of(0, 20)));
+    }
+
+    @Test
+    void findAllByOrderByCreatedAtDescIsIndexed() {
+        assertIndexed(() -> documentRepository.findAllByOrderByCreatedAtDesc(PageRequest.of(0, 20)));
+    }
+
+    @Test
+    void findByTypePagesAreIndexed() {
+        assertIndexed(() -> documentRepository.findByType(DocumentType.INCOMING, newestFirst()));
+        assertIndexed(() -> documentRepository.findByTypeAndKeyword(DocumentType.INCOMING, "văn", newestFirst()));
+        assertIndexed(() -> documentRepository.findByTypeAndStatus(
+                DocumentType.INCOMING, DocumentStatus.PENDING, newestFirst()));
+    }
+
+    @Test
+    void countsAreIndexed() {
+        Date end = new Date();
+        Date start = new Date(end.getTime() - 7_200_000L);
+        assertIndexed(() -> documentRepository.countByType(DocumentType.INCOMING));
+        assertIndexed(() -> documentRepository.countByTypeAndStatus(DocumentType.INCOMING, DocumentStatus.PENDING));
+        assertIndexed(() -> documentRepository.countByStatusForType(DocumentType.INCOMING));
+        assertIndexed(() -> documentRepository.countByTypeAndDateRange(DocumentType.INCOMING.name(), start, end));
+        assertIndexed(() -> documentRepository.countByDateRange(start, end));
+    }
+
+    @Test
+    void suggestAgencyUnitsIsIndexed() {
+        assertIndexed(() -> documentRepository.suggestAgencyUnits("(^| )" + Pattern.quote("dao"), 10));
+    }
+
+    @Test
+    void entityHistoryUsesKeysetIndex() {
+        assertThat(winningIndexes("tracking",
+                new Document("entityType", "DOCUMENT").append("entityId", "doc-7"),
+                new Document("timestamp", -1).append("_id", -1)))
+                .containsExactly("entity_timestamp_id");
+    }
+
+    @Test
+    void actorHistoryUsesKeysetIndex() {
+        assertThat(winningIndexes("tracking",
+                new Document("actor", new DBRef("users", users.get(3))),
+                new Document("timestamp", -1).append("_id", -1)))
+                .containsExactly("actor_timestamp_id");
+    }
+
+    @Test
+    void recentActivityUsesTimestampIndex() {
+        assertThat(winningIndexes("tracking",
+                new Document(),
+                new Document("timestamp", -1).append("_id", -1)))
+                .containsExactly("timestamp_id");
+    }
+
+    @Test
+    void unreadNotificationsUseCompoundIndex() {
+        assertThat(winningIndexes("notifications",
+                new Document("user", new DBRef("users", users.get(5))).append("read", false),
+                new Document("timestamp", -1)))
+                .containsExactly("user_read_timestamp");
+    }
+
+    @Test
+    void obsoleteTrackingIndexesAreDropped() {
+        mongoTemplate.getCollection("tracking").createIndex(
+                new Document("entityType", 1).append("entityId", 1).append("timestamp", -1),
+                new IndexOptions().name("entity_timestamp"));
+        mongoTemplate.getCollection("tracking").createIndex(
+                new Document("timestamp", 1), new IndexOptions().name("timestamp"));
+
+        mongoIndexConfig.ensureIndexes();
+
+        List<String> names = new ArrayList<>();
+        mongoTemplate.getCollection("tracking").listIndexes().forEach(index -> names.add(index.getString("name")));
+        assertThat(names).contains("entity_timestamp_id", "timestamp_id")
+                .doesNotContain("entity_timestamp", "timestamp");
+    }
+
+    private static Pageable newestFirst() {
+        return PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt"));
+    }
+
+    // Captures the commands the call sends to the documents collection and explains each of them
+    private void assertIndexed(Runnable call) {
+        List<Document> commands = capture(call);
+        assertThat(commands).as("commands sent to documents").isNotEmpty();
+
+        for (Document command : commands) {
+            Document explain = mongoTemplate.getDb().runCommand(
+                    new Document("explain", command).append("verbosity", "queryPlanner"));
+            List<Document> winningPlans = new ArrayList<>();
+            collectWinningPlans(explain, winningPlans);
+            assertThat(winningPlans).as("winning plan of %s", command.toJson()).isNotEmpty();
+
+            for (Document plan : winningPlans) {
+                List<String> stages = new ArrayList<>();
+                collectStages(plan, stages);
+                // Stages are listed top down, a sort above GROUP orders the groups and not documents
+                List<String> documentStages = stages.subList(stages.lastIndexOf("GROUP") + 1, stages.size());
+                assertThat(documentStages).as("plan stages of %s", command.toJson())
+                        .isNotEmpty()
+                        .doesNotContain("COLLSCAN", "SORT");
+            }
+        }
+    }
+
+    private List<Document> capture(Runnable call) {
+        MongoDatabase db = mongoTemplate.getDb();
+        db.runCommand(new Document("profile", 0));
+        db.getCollection("system.profile").drop();
+        db.runCommand(new Document("profile", 2));
+        try {
+            call.run();
+        } finally {
+            db.runCommand(new Document("profile", 0));
+        }
+
+        List<Document> commands = new ArrayList<>();
+        db.getCollection("system.profile")
+                .find(new Document("ns", db.getName() + ".documents")
+                        .append("op", new Document("$in", List.of("query", "command"))))
+                .forEach(entry -> {
+                    Document command = new Document(entry.get("command", Document.class));
+                    // Session and routing fields are not accepted inside explain
+                    command.keySet().removeIf(key -> key.startsWith("$") || key.equals("lsid") || key.equals("txnNumber"));
+                    commands.add(command);
+                });
+        return commands;
+    }
+
+    // find and count explain at queryPlanner, aggregations per pipeline stage under $cursor
+    private static void collectWinningPlans(Object node, List<Document> plans) {
+        if (node instanceof Document document) {
+            document.forEach((key, value) -> {
+                if (key.equals("winningPlan") && value instanceof Document plan) {
+                    plans.add(plan);
+                } else if (!key.equals("rejectedPlans")) {
+                    collectWinningPlans(value, plans);
+                }
+            });
+        } else if (node instanceof List<?> values) {
+            values.forEach(value -> collectWinningPlans(value, plans));
+        }
+    }
+
+    private static void collectStages(Object node, List<String> stages) {
+        if (node instanceof Document stage) {
+            if (stage.get("stage") instanceof String name) {
+                stages.add(name);
+            }
+            stage.values().forEach(value -> collectStages(value, stages));
+        } else if (node instanceof List<?> values) {
+            values.forEach(value -> collectStages(value, stages));
+        }
+    }
+
+    private List<String> winningIndexes(String collection, Bson filter, Bson sort) {
+        Document explain = mongoTemplate.getCollection(collection).find(filter).sort(sort).limit(20).explain();
+        Document winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+
+        List<String> indexes = new ArrayList<>();
+        collectIndexScans(winningPlan, indexes);
+        return indexes;
+    }
+
+    // Walks inputStage/inputStages (and queryPlan on the slot-based engine) for IXSCAN stages
+    private static void collectIndexScans(Object node, List<String> indexes) {
+        if (node instanceof Document stage) {
+            if ("IXSCAN".equals(stage.getString("stage"))) {
+                indexes.add(stage.getString("indexName"));
+            }
+            stage.values().forEach(value -> collectIndexScans(value, indexes));
+        } else if (node instanceof List<?> stages) {
+            stages.forEach(value -> collectIndexScans(value, indexes));
+        }
+    }
+}
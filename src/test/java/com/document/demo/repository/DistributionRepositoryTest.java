@@ -0,0 +1,95 @@
+package com.document.demo.repository;
+
+import com.document.demo.models.Distribution;
+import com.document.demo.models.Documents;
+import com.document.demo.models.User;
+import com.document.demo.models.enums.DistributionStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The list finders read references through BatchReferenceReader, the result must match what
+// the mapping layer resolves row by row
+@DataMongoTest
+@Testcontainers
+class DistributionRepositoryTest {
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private DistributionRepository distributionRepository;
+
+    private User sender;
+    private List<User> receivers;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.getDb().drop();
+
+        sender = mongoTemplate.insert(user("sender"));
+        receivers = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            receivers.add(mongoTemplate.insert(user("receiver" + i)));
+        }
+        Documents document = mongoTemplate.insert(Documents.builder()
+                .number("CV-1")
+                .title("Công văn")
+                .content("Nội dung")
+                .agencyUnit("Phòng Đào tạo")
+                .attachment("https://example.com/1.pdf")
+                .build());
+
+        for (int i = 0; i < 3; i++) {
+            mongoTemplate.insert(Distribution.builder()
+                    .note("note " + i)
+                    .sender(sender)
+                    .receivers(receivers)
+                    .documents(document)
+                    .build());
+        }
+    }
+
+    @Test
+    void findByReceiverResolvesEveryReference() {
+        List<Distribution> distributions = distributionRepository.findByReceiversContaining(receivers.get(7));
+
+        assertThat(distributions).hasSize(3).allSatisfy(distribution -> {
+            assertThat(distribution.getSender().getUsername()).isEqualTo("sender");
+            assertThat(distribution.getReceivers()).extracting(User::getUserId)
+                    .containsExactlyElementsOf(receivers.stream().map(User::getUserId).toList());
+            assertThat(distribution.getDocuments().getNumber()).isEqualTo("CV-1");
+        });
+    }
+
+    @Test
+    void findBySenderAndStatusMatchStoredValues() {
+        assertThat(distributionRepository.findBySender(sender)).hasSize(3);
+        assertThat(distributionRepository.findBySender(receivers.get(0))).isEmpty();
+        assertThat(distributionRepository.findByStatus(DistributionStatus.PENDING)).hasSize(3);
+        assertThat(distributionRepository.findAll()).hasSize(3);
+    }
+
+    private static User user(String username) {
+        return User.builder()
+                .username(username)
+                .password("secret")
+                .email(username + "@example.com")
+                .fullName(username)
+                .build();
+    }
+}
@@ -0,0 +1,56 @@
+package com.document.demo.service.impl;
+
+import com.document.demo.models.Documents;
+import com.document.demo.models.User;
+import com.document.demo.repository.DocumentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReportServiceImpTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    private ReportServiceImp reportService;
+
+    @BeforeEach
+    void setUp() {
+        reportService = new ReportServiceImp(documentRepository, new CounterServiceImpl(mongoTemplate));
+    }
+
+    @Test
+    void totalDocumentReadsCollectionMetadataOnly() {
+        when(mongoTemplate.estimatedCount(Documents.class)).thenReturn(25_000L);
+
+        assertThat(reportService.getTotalDocument()).isEqualTo(25_000);
+
+        verify(mongoTemplate).estimatedCount(Documents.class);
+        verifyNoMoreInteractions(mongoTemplate);
+        verifyNoInteractions(documentRepository);
+    }
+
+    @Test
+    void totalUserReadsCollectionMetadataOnly() {
+        when(mongoTemplate.estimatedCount(User.class)).thenReturn(300L);
+
+        assertThat(reportService.getTotalUser()).isEqualTo(300);
+
+        verify(mongoTemplate).estimatedCount(User.class);
+        verifyNoMoreInteractions(mongoTemplate);
+        verifyNoInteractions(documentRepository);
+    }
+}
@@ -0,0 +1,120 @@
+package com.document.demo.service.impl;
+
+import com.document.demo.exception.FileUploadException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class S3MultipartUploaderTest {
+    private static final String BUCKET = "attachments";
+    private static final String KEY = "documents/pdf/large.pdf";
+    private static final int PART_SIZE = 5 * 1024 * 1024;
+    private static final int MAX_BUFFERED_PARTS = 3;
+
+    @Mock
+    private S3Client s3Client;
+
+    private S3MultipartUploader uploader;
+
+    @BeforeEach
+    void setUp() {
+        uploader = new S3MultipartUploader(s3Client);
+        ReflectionTestUtils.setField(uploader, "partSize", (long) PART_SIZE);
+        ReflectionTestUtils.setField(uploader, "concurrency", 1);
+        ReflectionTestUtils.setField(uploader, "maxBufferedParts", MAX_BUFFERED_PARTS);
+        ReflectionTestUtils.setField(uploader, "partRetries", 0);
+        ReflectionTestUtils.setField(uploader, "retryBackoffMs", 0L);
+        uploader.start();
+
+        when(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-1").build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        uploader.stop();
+    }
+
+    @Test
+    @Timeout(30)
+    void failedPartAbortsUploadAndGivesEverySlotBack() throws Exception {
+        // The first part fails once the reader has queued the next ones behind it, so the failure
+        // cancels parts that never started
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class))).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            throw SdkClientException.create("connection reset");
+        });
+
+        assertThatThrownBy(() -> upload(5))
+                .isInstanceOf(FileUploadException.class)
+                .hasMessageContaining("connection reset");
+
+        verify(s3Client).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+        verify(s3Client, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+        assertThat(availableSlots()).isEqualTo(MAX_BUFFERED_PARTS);
+    }
+
+    @Test
+    @Timeout(30)
+    void uploadAfterFailedOnesDoesNotWaitForSlots() throws Exception {
+        AtomicBoolean failing = new AtomicBoolean(true);
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class))).thenAnswer(invocation -> {
+            if (failing.get()) {
+                throw SdkClientException.create("connection reset");
+            }
+            return UploadPartResponse.builder().eTag("etag").build();
+        });
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> upload(MAX_BUFFERED_PARTS + 1)).isInstanceOf(FileUploadException.class);
+        }
+        failing.set(false);
+        upload(MAX_BUFFERED_PARTS + 1);
+
+        verify(s3Client, times(3)).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+        verify(s3Client).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+        assertThat(availableSlots()).isEqualTo(MAX_BUFFERED_PARTS);
+    }
+
+    private void upload(int parts) {
+        byte[] content = new byte[parts * PART_SIZE];
+        uploader.upload(BUCKET, KEY, "application/pdf", new ByteArrayInputStream(content), content.length);
+    }
+
+    // A part task gives its slot back after it is marked done, wait for the pool to go idle first
+    private int availableSlots() throws InterruptedException {
+        ExecutorService executor = (ExecutorService) ReflectionTestUtils.getField(uploader, "executor");
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        return ((Semaphore) ReflectionTestUtils.getField(uploader, "partSlots")).availablePermits();
+    }
+}
@@ -0,0 +1,150 @@
+package com.document.demo.service.impl;
+
+import com.document.demo.dto.response.PresignedUrlResponse;
+import com.document.demo.exception.BadRequestException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.MinIOContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.sync.ResponseTransformer;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.LifecycleRule;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+// Pre-signed uploads against MinIO: the client PUTs under pending/, confirm moves the object to its
+// final key, and anything left under pending/ is covered by the bucket's expiry rule
+@Testcontainers
+class S3ServiceImplPresignTest {
+    private static final String BUCKET = "attachments";
+    private static final String DOCUMENT_ID = "6650f0c2a1b2c3d4e5f60718";
+
+    @Container
+    static MinIOContainer minio = new MinIOContainer("minio/minio:RELEASE.2024-01-16T16-07-38Z");
+
+    private static S3Client s3Client;
+    private static S3Presigner s3Presigner;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private S3ServiceImpl s3Service;
+
+    @BeforeAll
+    static void createBucket() {
+        StaticCredentialsProvider credentials = StaticCredentialsProvider.create(
+                AwsBasicCredentials.create(minio.getUserName(), minio.getPassword()));
+        S3Configuration pathStyle = S3Configuration.builder().pathStyleAccessEnabled(true).build();
+        s3Client = S3Client.builder()
+                .region(Region.US_EAST_1)
+                .endpointOverride(URI.create(minio.getS3URL()))
+                .credentialsProvider(credentials)
+                .serviceConfiguration(pathStyle)
+                .build();
+        s3Presigner = S3Presigner.builder()
+                .region(Region.US_EAST_1)
+                .endpointOverride(URI.create(minio.getS3URL()))
+                .credentialsProvider(credentials)
+                .serviceConfiguration(pathStyle)
+                .build();
+        s3Client.createBucket(request -> request.bucket(BUCKET));
+    }
+
+    @AfterAll
+    static void closeClients() {
+        s3Presigner.close();
+        s3Client.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        s3Service = new S3ServiceImpl(s3Client, new S3MultipartUploader(s3Client), s3Presigner);
+        ReflectionTestUtils.setField(s3Service, "bucketName", BUCKET);
+        ReflectionTestUtils.setField(s3Service, "region", "us-east-1");
+        ReflectionTestUtils.setField(s3Service, "presignEnabled", true);
+        ReflectionTestUtils.setField(s3Service, "presignTtlSeconds", 300L);
+        ReflectionTestUtils.setField(s3Service, "presignMaxSize", 1024L);
+        ReflectionTestUtils.setField(s3Service, "pendingExpiryDays", 1);
+    }
+
+    @Test
+    void confirmedUploadMovesOutOfPendingPrefix() throws Exception {
+        PresignedUrlResponse upload = s3Service.presignUpload(DOCUMENT_ID, "report.pdf", "application/pdf");
+        assertThat(upload.getKey()).startsWith("pending/documents/pdf/" + DOCUMENT_ID + "/");
+        assertThat(put(upload, "%PDF-1.7 content")).isEqualTo(200);
+
+        String fileUrl = s3Service.confirmUpload(DOCUMENT_ID, upload.getKey());
+
+        String finalKey = upload.getKey().substring("pending/".length());
+        assertThat(fileUrl).endsWith("/" + finalKey);
+        String stored = s3Client.getObject(request -> request.bucket(BUCKET).key(finalKey),
+                ResponseTransformer.toBytes()).asString(StandardCharsets.UTF_8);
+        assertThat(stored).isEqualTo("%PDF-1.7 content");
+        assertThatThrownBy(() -> s3Client.headObject(request -> request.bucket(BUCKET).key(upload.getKey())))
+                .isInstanceOf(NoSuchKeyException.class);
+    }
+
+    @Test
+    void oversizedUploadIsRejectedAndDeleted() throws Exception {
+        PresignedUrlResponse upload = s3Service.presignUpload(DOCUMENT_ID, "large.pdf", "application/pdf");
+        assertThat(put(upload, "x".repeat(2048))).isEqualTo(200);
+
+        assertThatThrownBy(() -> s3Service.confirmUpload(DOCUMENT_ID, upload.getKey()))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> s3Client.headObject(request -> request.bucket(BUCKET).key(upload.getKey())))
+                .isInstanceOf(NoSuchKeyException.class);
+    }
+
+    @Test
+    void keysOutsidePendingPrefixOrOfAnotherDocumentAreRejected() {
+        assertThatThrownBy(() -> s3Service.confirmUpload(DOCUMENT_ID, "documents/pdf/" + DOCUMENT_ID + "/a.pdf"))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> s3Service.confirmUpload(DOCUMENT_ID, "pending/documents/pdf/other/a.pdf"))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void pendingPrefixGetsExpiryRuleAndOtherRulesAreKept() {
+        s3Client.putBucketLifecycleConfiguration(request -> request
+                .bucket(BUCKET)
+                .lifecycleConfiguration(configuration -> configuration.rules(LifecycleRule.builder()
+                        .id("expire-tmp")
+                        .filter(filter -> filter.prefix("tmp/"))
+                        .status("Enabled")
+                        .expiration(expiration -> expiration.days(7))
+                        .build())));
+
+        s3Service.applyPendingUploadExpiry();
+        // Applying again replaces the rule instead of adding a second one
+        s3Service.applyPendingUploadExpiry();
+
+        assertThat(s3Client.getBucketLifecycleConfiguration(request -> request.bucket(BUCKET)).rules())
+                .extracting(LifecycleRule::id, rule -> rule.filter().prefix(), rule -> rule.expiration().days())
+                .containsExactlyInAnyOrder(
+                        tuple("expire-tmp", "tmp/", 7),
+                        tuple("expire-pending-uploads", "pending/", 1));
+    }
+
+    private int put(PresignedUrlResponse upload, String body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(upload.getUrl()))
+                .PUT(HttpRequest.BodyPublishers.ofString(body));
+        upload.getHeaders().forEach(request::header);
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}